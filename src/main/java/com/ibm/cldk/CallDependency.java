@@ -0,0 +1,40 @@
+/*
+Copyright IBM Corporation 2023, 2024
+
+Licensed under the Apache Public License 2.0, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.ibm.cldk;
+
+import com.ibm.cldk.entities.AbstractGraphEdge;
+import com.ibm.cldk.entities.CallableVertex;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+class CallDependency extends Dependency {
+    public String type;
+    public String weight;
+
+    public CallDependency(CallableVertex source, CallableVertex target, AbstractGraphEdge edge) {
+        this.source = source;
+        this.target = target;
+        this.type = edge.toString();
+        this.weight = String.valueOf(edge.getWeight());
+    }
+
+    public CallDependency(CallableVertex source, CallableVertex target, String type, int weight) {
+        this.source = source;
+        this.target = target;
+        this.type = type;
+        this.weight = String.valueOf(weight);
+    }
+}
@@ -13,24 +13,38 @@ limitations under the License.
 package com.ibm.cldk;
 
 import com.github.javaparser.Problem;
-import com.google.common.reflect.TypeToken;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.ibm.cldk.entities.JavaCompilationUnit;
+import com.ibm.cldk.entities.NormalizedCallGraph;
+import com.ibm.cldk.utils.AnalysisUtils;
 import com.ibm.cldk.utils.BuildProject;
+import com.ibm.cldk.utils.FactProjection;
 import com.ibm.cldk.utils.Log;
+import com.ibm.cldk.utils.NDJSONWriter;
+import com.ibm.cldk.utils.ScopeUtils;
+import com.ibm.cldk.utils.ShardedOutputWriter;
+import com.ibm.cldk.utils.StringPool;
+import com.ibm.cldk.utils.StringTableEncoding;
+import com.ibm.cldk.utils.SymbolTableCache;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -78,6 +92,30 @@ public class CodeAnalyzer implements Runnable {
     @Option(names = { "--no-clean-dependencies" }, description = "Do not attempt to auto-clean dependencies")
     public static boolean noCleanDependencies = false;
 
+    @Option(names = {
+            "--dependency-mode" }, description = "How dependency jars are made available for type resolution and the call graph. Options: copy (copy them into _library_dependencies in the project, and delete them after the analysis); classpath (only resolve the dependency classpath with Maven or Gradle, and read the jars in place from the local Maven repository or the Gradle cache; the resolved classpath is cached in ~/.codeanalyzer/classpath against a hash of the build files). Default: copy")
+    public static String dependencyMode = "copy";
+
+    @Option(names = {
+            "--build-timeout" }, description = "Wall-clock budget in seconds for compiling the project at analysis level 2. A build that runs longer is killed together with its child processes. Default: 0 (no budget)")
+    public static int buildTimeout = 0;
+
+    @Option(names = {
+            "--dependency-timeout" }, description = "Wall-clock budget in seconds for downloading or resolving the dependencies of the project. A build tool that runs longer is killed together with its child processes. Default: 0 (no budget)")
+    public static int dependencyTimeout = 0;
+
+    @Option(names = {
+            "--build-offline" }, description = "Run Maven (-o) and Gradle (--offline) in offline mode, using only the artifacts in the local repository and cache.")
+    public static boolean buildOffline = false;
+
+    @Option(names = {
+            "--build-parallel" }, description = "Build the modules of multi-module projects in parallel: Maven with one thread per core (-T 1C), Gradle with --parallel.")
+    public static boolean buildParallel = false;
+
+    @Option(names = {
+            "--incremental-build" }, description = "At analysis level 2, compile the project in-process with the Java compiler of the running JDK instead of running Maven or Gradle: only the sources changed since the previous compilation are compiled, against the resolved dependency classpath (see --dependency-mode classpath), up-to-date class files are reused, and nothing is compiled if no source changed. Requires the standard source layout; falls back to the build tool if the project does not compile this way.")
+    public static boolean incrementalBuild = false;
+
     @Option(names = { "-f",
             "--project-root-path" }, description = "Path to the root pom.xml/build.gradle file of the project.")
     public static String projectRootPom;
@@ -86,6 +124,81 @@ public class CodeAnalyzer implements Runnable {
             "--analysis-level" }, description = "Level of analysis to perform. Options: 1 (for just symbol table); 2 (for call graph). Default: 1")
     public static int analysisLevel = 1;
 
+    @Option(names = { "-j",
+            "--jobs" }, description = "Number of worker threads used to build the symbol table. Default: 1")
+    public static int jobs = 1;
+
+    @Option(names = { "--compact" }, description = "Write the output JSON without pretty printing.")
+    public static boolean compact = false;
+
+    @Option(names = {
+            "--cg-entrypoints" }, description = "Callables the call graph is built from at analysis level 2. Options: all (every method of the application classes); detected (the callables and the methods of the classes that the symbol table flags as entry points). Default: all")
+    public static String callGraphEntrypoints = "all";
+
+    @Option(names = {
+            "--cg-packages" }, split = ",", description = "Package prefixes of the application classes to build the call graph for, comma-separated. Application classes in other packages are analyzed as library code. Default: all application classes")
+    public static List<String> callGraphPackages;
+
+    @Option(names = {
+            "--cg-algorithm" }, description = "Call graph construction algorithm at analysis level 2, from the most precise to the cheapest. Options: 0-1-cfa; 0-cfa; rta; cha (class hierarchy analysis, no propagation). If a budget (--cg-timeout, --cg-max-heap) runs out, construction is retried with the next cheaper algorithm. Default: rta")
+    public static String callGraphAlgorithm = "rta";
+
+    @Option(names = {
+            "--cg-timeout" }, description = "Wall-clock budget in seconds for each attempt at building the call graph. Default: 0 (no budget)")
+    public static int callGraphTimeout = 0;
+
+    @Option(names = {
+            "--cg-max-heap" }, description = "Heap budget in megabytes while building the call graph; construction is canceled when the used heap exceeds it. Default: 0 (no budget)")
+    public static int callGraphMaxHeap = 0;
+
+    @Option(names = {
+            "--exclusions" }, description = "File of classes to leave out of the class hierarchy at analysis level 2, one regular expression per line on internal class names (e.g., com\\/example\\/legacy\\/.*), in addition to the built-in exclusions of desktop UI, media, scripting, CORBA and JDK tooling classes.")
+    public static String exclusionsFile;
+
+    @Option(names = {
+            "--jdk-modules" }, description = "JDK classes to load from the jrt:/ file system of JAVA_HOME at analysis level 2. Options: referenced (the classes that the application classes and dependencies can reach through references, found with the cached JDK class index); all (every module of the runtime image). Default: referenced")
+    public static String jdkModules = "referenced";
+
+    @Option(names = {
+            "--jdk-cache-dir" }, description = "Directory of the cached JDK class indices, which are reused across runs on the same JDK. Default: ~/.codeanalyzer/jdk")
+    public static String jdkCacheDirectory;
+
+    @Option(names = {
+            "--warm-jdk-cache" }, description = "Index the JDK in JAVA_HOME into the JDK cache (see --jdk-cache-dir) and exit without analyzing, e.g., when building CI images.")
+    private static boolean warmJdkCache = false;
+
+    @Option(names = {
+            "--normalized-call-graph" }, description = "Write the call graph as a table of vertices and a list of [source, target, weight] edges between vertex ids, instead of one object per edge with its source and target callables. Requires --format json.")
+    public static boolean normalizedCallGraph = false;
+
+    @Option(names = {
+            "--string-table" }, description = "Write the JSON output with a shared string table: every string is written once to the string_table array and referenced by its index, and fields with default values are omitted. Requires --format json.")
+    public static boolean stringTable = false;
+
+    @Option(names = {
+            "--format" }, description = "Format of the output. Options: json (a single JSON document, analysis.json); ndjson (one JSON record per line, written while the analysis runs, analysis.ndjson); sharded (NDJSON shards indexed by manifest.json, requires --output). Default: json")
+    public static String format = "json";
+
+    @Option(names = {
+            "--shard-size" }, description = "Number of compilation units per shard for sharded output. Default: 0 (one shard per package)")
+    public static int shardSize = 0;
+
+    @Option(names = {
+            "--cache" }, description = "Cache the symbol table in the output directory and only re-analyze source files that changed since the previous run. Requires --output.")
+    public static boolean cache = false;
+
+    @Option(names = {
+            "--include" }, split = ",", description = "Optional facts to compute, comma-separated: code, comments, call_sites, variable_declarations, accessed_fields, referenced_types, crud_operations, crud_queries, or all. Default: all")
+    public static List<String> include;
+
+    @Option(names = {
+            "--exclude" }, split = ",", description = "Optional facts not to compute, comma-separated (see --include). Use --exclude all for type and callable signatures only.")
+    public static List<String> exclude;
+
+    @Option(names = {
+            "--lexical-preserving-code" }, description = "Print the code of callables with JavaParser's lexical preserving printer instead of slicing it from the source files.")
+    public static boolean lexicalPreservingCode = false;
+
     @Option(names = { "--include-test-classes" }, hidden = true, description = "Print logs to console.")
     public static boolean includeTestClasses = false;
 
@@ -94,6 +207,10 @@ public class CodeAnalyzer implements Runnable {
 
     private static final String outputFileName = "analysis.json";
 
+    private static final String ndjsonOutputFileName = "analysis.ndjson";
+
+    private static final String cacheDirectoryName = ".cache";
+
     public static Gson gson = new GsonBuilder()
             .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
             .setPrettyPrinting()
@@ -116,16 +233,60 @@ public class CodeAnalyzer implements Runnable {
         // Set log level based on quiet option
         Log.setVerbosity(verbose);
         try {
+            if (warmJdkCache) {
+                ScopeUtils.warmJdkCache();
+                return;
+            }
             analyze();
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            // the pooled strings and the call graph memos are only needed while the analysis output is produced
+            StringPool.clear();
+            AnalysisUtils.clearCaches();
         }
     }
 
     private static void analyze() throws Exception {
+        if (!"json".equals(format) && !"ndjson".equals(format) && !"sharded".equals(format)) {
+            throw new IllegalArgumentException(
+                    "Unsupported output format: " + format + "; expected json, ndjson or sharded");
+        }
+        if ("sharded".equals(format) && output == null) {
+            throw new IllegalArgumentException("Sharded output requires an output directory (--output)");
+        }
+        if (!"all".equals(callGraphEntrypoints) && !"detected".equals(callGraphEntrypoints)) {
+            throw new IllegalArgumentException(
+                    "Unsupported call graph entry points: " + callGraphEntrypoints + "; expected all or detected");
+        }
+        if (!SystemDependencyGraph.CALL_GRAPH_ALGORITHMS.contains(callGraphAlgorithm)) {
+            throw new IllegalArgumentException("Unsupported call graph algorithm: " + callGraphAlgorithm + "; expected "
+                    + String.join(", ", SystemDependencyGraph.CALL_GRAPH_ALGORITHMS));
+        }
+        if (!"referenced".equals(jdkModules) && !"all".equals(jdkModules)) {
+            throw new IllegalArgumentException("Unsupported JDK modules: " + jdkModules + "; expected referenced or all");
+        }
+        if (!"copy".equals(dependencyMode) && !"classpath".equals(dependencyMode)) {
+            throw new IllegalArgumentException(
+                    "Unsupported dependency mode: " + dependencyMode + "; expected copy or classpath");
+        }
+        if (normalizedCallGraph && !"json".equals(format)) {
+            throw new IllegalArgumentException("The normalized call graph (--normalized-call-graph) requires --format json");
+        }
+        if (stringTable && (!"json".equals(format) || targetFiles != null)) {
+            throw new IllegalArgumentException(
+                    "The string table encoding (--string-table) requires --format json and no --target-files");
+        }
+        SymbolTable.projection = FactProjection.of(include, exclude);
+        SymbolTable.lexicalPreservingCode = lexicalPreservingCode;
+        boolean ndjson = "ndjson".equals(format);
+        boolean sharded = "sharded".equals(format);
+        NDJSONWriter ndjsonWriter = null;
+        boolean mergeAnalysisFile = false;
 
-        JsonObject combinedJsonObject = new JsonObject();
         Map<String, JavaCompilationUnit> symbolTable;
+        List<Dependency> callGraph = null;
+        NormalizedCallGraph normalizedCallGraph = null;
         projectRootPom = projectRootPom == null ? input : projectRootPom;
         // First of all if, sourceAnalysis is provided, we will analyze the source code
         // instead of the project.
@@ -139,7 +300,13 @@ public class CodeAnalyzer implements Runnable {
             // download library dependencies of project for type resolution
             String dependencies = null;
             try {
-                if (BuildProject.downloadLibraryDependencies(input, projectRootPom)) {
+                if ("classpath".equals(dependencyMode)) {
+                    // the scope and the symbol solver read the resolved classpath from the symbol table
+                    SymbolTable.dependencyClasspath = BuildProject.resolveDependencyClasspath(input, projectRootPom);
+                    if (SymbolTable.dependencyClasspath == null) {
+                        Log.warn("Failed to resolve the dependency classpath of project");
+                    }
+                } else if (BuildProject.downloadLibraryDependencies(input, projectRootPom)) {
                     dependencies = String.valueOf(BuildProject.libDownloadPath);
                 } else {
                     Log.warn("Failed to download library dependencies of project");
@@ -172,30 +339,23 @@ public class CodeAnalyzer implements Runnable {
                         .getLeft();
 
                 // if analysis file exists, update it with new symbol table information for the
-                // specified fiels
-                if (analysisFileExists) {
-                    // read symbol table information from existing analysis file
-                    Map<String, JavaCompilationUnit> existingSymbolTable = readSymbolTableFromFile(
-                            new File(output, outputFileName));
-                    if (existingSymbolTable != null) {
-                        // for each file, tag its symbol table information as "updated" and update
-                        // existing symbol table
-                        for (String targetFile : targetFiles) {
-                            String targetPathAbs = Paths.get(targetFile).toAbsolutePath().toString();
-                            JavaCompilationUnit javaCompilationUnit = symbolTable.get(targetPathAbs);
-                            javaCompilationUnit.setModified(true);
-                            existingSymbolTable.put(targetPathAbs, javaCompilationUnit);
-                        }
-                    }
-                    symbolTable = existingSymbolTable;
-                }
+                // specified fiels (NDJSON and sharded output are updated while they are written)
+                mergeAnalysisFile = analysisFileExists && !ndjson && !sharded;
+            } else if (ndjson && analysisLevel < 2) {
+                // write each compilation unit as soon as it has been processed instead of
+                // collecting the symbol table (call graph construction updates the cyclomatic
+                // complexity of callables, so at analysis level 2 units are written afterwards)
+                ndjsonWriter = openNDJSONWriter();
+                SymbolTable.extractAll(Paths.get(input), jobs, openSymbolTableCache(), false,
+                        ndjsonWriter::writeCompilationUnit);
+                symbolTable = null;
             } else {
                 // construct symbol table for project, write parse problems to file in output
                 // directory if specified
-                Pair<Map<String, JavaCompilationUnit>, Map<String, List<Problem>>> symbolTableExtractionResult = SymbolTable
-                        .extractAll(Paths.get(input));
-
-                symbolTable = symbolTableExtractionResult.getLeft();
+                symbolTable = new LinkedHashMap<>();
+                // only the call graph reads the index of declared callables
+                SymbolTable.extractAll(Paths.get(input), jobs, openSymbolTableCache(), analysisLevel > 1,
+                        symbolTable::put);
             }
 
             if (analysisLevel > 1) {
@@ -205,45 +365,74 @@ public class CodeAnalyzer implements Runnable {
                 build = build == null ? "auto" : build;
                 // Is noBuild is true, we will not build the project
                 build = noBuild ? null : build;
-                List<Dependency> sdgEdges = SystemDependencyGraph.construct(input, dependencies, build);
-                combinedJsonObject.add("call_graph", gson.toJsonTree(sdgEdges));
+                if (CodeAnalyzer.normalizedCallGraph) {
+                    normalizedCallGraph = SystemDependencyGraph.constructNormalized(input, dependencies, build);
+                } else {
+                    callGraph = SystemDependencyGraph.construct(input, dependencies, build);
+                }
             }
         }
         // Cleanup library dependencies directory
         BuildProject.cleanLibraryDependencies();
 
-        // Convert the JavaCompilationUnit to JSON and add to consolidated json object
-        String symbolTableJSONString = gson.toJson(symbolTable);
-        JsonElement symbolTableJSON = gson.fromJson(symbolTableJSONString, JsonElement.class);
-        combinedJsonObject.add("symbol_table", symbolTableJSON);
-
-        // Add version number to the output JSON
-        try {
-            String[] versions = new VersionProvider().getVersion();
-            if (versions.length > 0) {
-                combinedJsonObject.addProperty("version", versions[0]);
+        if (ndjson) {
+            emitNDJSON(ndjsonWriter != null ? ndjsonWriter : openNDJSONWriter(), symbolTable, callGraph);
+        } else if (sharded) {
+            ShardedOutputWriter shardedOutputWriter = new ShardedOutputWriter(Paths.get(output), shardSize);
+            if (targetFiles != null && shardedOutputWriter.hasManifest()) {
+                // rewrite only the shards holding the target files
+                shardedOutputWriter.update(getTargetCompilationUnits(symbolTable), getVersion());
             } else {
-                combinedJsonObject.addProperty("version", "unknown");
+                shardedOutputWriter.write(symbolTable, callGraph, getVersion());
             }
-        } catch (Exception e) {
-            combinedJsonObject.addProperty("version", "error retrieving version");
+        } else if (mergeAnalysisFile) {
+            mergeJSON(symbolTable);
+        } else {
+            emit(symbolTable, callGraph, normalizedCallGraph);
         }
-        String consolidatedJSONString = gson.toJson(combinedJsonObject);
-        emit(consolidatedJSONString);
     }
 
-    private static void emit(String consolidatedJSONString) throws IOException {
+    /**
+     * Opens the symbol table cache in the output directory if caching is enabled.
+     *
+     * @return symbol table cache, or null if caching is disabled or there is no output directory
+     * @throws IOException if the cache cannot be opened
+     */
+    private static SymbolTableCache openSymbolTableCache() throws IOException {
+        if (!cache) {
+            return null;
+        }
+        if (output == null) {
+            Log.warn("--cache requires --output; analyzing without cache");
+            return null;
+        }
+        return SymbolTableCache.open(Paths.get(output, cacheDirectoryName), Paths.get(input), SymbolTable.projection);
+    }
+
+    /**
+     * Writes the analysis output to the console, or to the output directory if one is specified.
+     *
+     * @param symbolTable symbol table to write
+     * @param callGraph call graph edges to write, or null if no call graph was constructed
+     * @param normalizedCallGraph normalized call graph to write, or null if it was not constructed
+     * @throws IOException if writing to the console fails
+     */
+    private static void emit(Map<String, JavaCompilationUnit> symbolTable, List<Dependency> callGraph,
+            NormalizedCallGraph normalizedCallGraph) throws IOException {
         if (output == null) {
-            System.out.println(consolidatedJSONString);
+            // System.out must stay open, so the writer is flushed but not closed
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            writeAnalysis(writer, symbolTable, callGraph, normalizedCallGraph);
+            writer.write(System.lineSeparator());
+            writer.flush();
         } else {
             Path outputPath = Paths.get(output);
             if (!Files.exists(outputPath)) {
                 Files.createDirectories(outputPath);
             }
             // If output is not null, export to a file
-            File file = new File(output, "analysis.json");
-            try (FileWriter fileWriter = new FileWriter(file)) {
-                fileWriter.write(consolidatedJSONString);
+            try (Writer writer = Files.newBufferedWriter(outputPath.resolve(outputFileName), StandardCharsets.UTF_8)) {
+                writeAnalysis(writer, symbolTable, callGraph, normalizedCallGraph);
                 Log.done("Analysis output saved at " + output);
             } catch (IOException e) {
                 Log.error("Error writing to file: " + e.getMessage());
@@ -251,15 +440,320 @@ public class CodeAnalyzer implements Runnable {
         }
     }
 
-    private static Map<String, JavaCompilationUnit> readSymbolTableFromFile(File analysisJsonFile) {
-        Type symbolTableType = new TypeToken<Map<String, JavaCompilationUnit>>() {
-        }.getType();
-        try (FileReader reader = new FileReader(analysisJsonFile)) {
-            JsonObject jsonObject = JsonParser.parseReader(reader).getAsJsonObject();
-            return gson.fromJson(jsonObject.get("symbol_table"), symbolTableType);
-        } catch (IOException e) {
+    /**
+     * Streams the analysis output as a JSON object to the given writer, one compilation unit and one call graph edge
+     * at a time, so that the output document is never held in memory as a whole. With {@link #stringTable}, the
+     * output is written in the {@link StringTableEncoding}.
+     *
+     * @param writer writer to stream to; it is flushed but not closed
+     * @param symbolTable symbol table to write
+     * @param callGraph call graph edges to write, or null if no call graph was constructed
+     * @param normalizedCallGraph normalized call graph to write, or null if it was not constructed
+     * @throws IOException if writing fails
+     */
+    private static void writeAnalysis(Writer writer, Map<String, JavaCompilationUnit> symbolTable,
+            List<Dependency> callGraph, NormalizedCallGraph normalizedCallGraph) throws IOException {
+        JsonWriter jsonWriter = newJsonWriter(writer);
+        jsonWriter.beginObject();
+        if (stringTable) {
+            StringTableEncoding encoding = new StringTableEncoding();
+            // collect the strings, so that the string table can be written ahead of the references to it
+            JsonWriter discardingWriter = new JsonWriter(Writer.nullWriter());
+            discardingWriter.beginObject();
+            writeAnalysisContent(discardingWriter, encoding.getGson(), symbolTable, callGraph, normalizedCallGraph);
+            discardingWriter.endObject();
+            Log.debug("String table holds " + encoding.size() + " strings.");
+            jsonWriter.name("string_table");
+            encoding.writeStrings(jsonWriter);
+            writeAnalysisContent(jsonWriter, encoding.getGson(), symbolTable, callGraph, normalizedCallGraph);
+        } else {
+            writeAnalysisContent(jsonWriter, gson, symbolTable, callGraph, normalizedCallGraph);
+        }
+        // Add version number to the output JSON
+        jsonWriter.name("version").value(getVersion());
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes the call graph and symbol table members of the analysis output with the given Gson instance.
+     */
+    private static void writeAnalysisContent(JsonWriter jsonWriter, Gson outputGson,
+            Map<String, JavaCompilationUnit> symbolTable, List<Dependency> callGraph,
+            NormalizedCallGraph normalizedCallGraph) throws IOException {
+        if (normalizedCallGraph != null) {
+            jsonWriter.name("call_graph");
+            outputGson.toJson(normalizedCallGraph, NormalizedCallGraph.class, jsonWriter);
+        } else if (callGraph != null) {
+            jsonWriter.name("call_graph").beginArray();
+            for (Dependency edge : callGraph) {
+                outputGson.toJson(edge, edge.getClass(), jsonWriter);
+            }
+            jsonWriter.endArray();
+        }
+        jsonWriter.name("symbol_table");
+        if (symbolTable == null) {
+            jsonWriter.nullValue();
+        } else {
+            jsonWriter.beginObject();
+            for (Map.Entry<String, JavaCompilationUnit> compilationUnit : symbolTable.entrySet()) {
+                jsonWriter.name(compilationUnit.getKey());
+                outputGson.toJson(compilationUnit.getValue(), JavaCompilationUnit.class, jsonWriter);
+            }
+            jsonWriter.endObject();
+        }
+    }
+
+    /**
+     * Updates the symbol table information of the target files in the existing JSON output without loading it: the
+     * existing output is copied token by token to a temporary file, with the entries of the target files replaced by
+     * their new symbol table information tagged as "updated", and the target files that are not in the existing
+     * output appended. As before, the call graph of the existing output is not carried over.
+     *
+     * @param symbolTable symbol table of the target files
+     * @throws IOException if the updated output cannot be written
+     */
+    private static void mergeJSON(Map<String, JavaCompilationUnit> symbolTable) throws IOException {
+        mergeJSON(Paths.get(output, outputFileName), getTargetCompilationUnits(symbolTable));
+    }
+
+    /**
+     * Updates the given compilation units in the existing JSON output, see {@link #mergeJSON(Map)}.
+     *
+     * @param existingOutput existing JSON output to update
+     * @param updatedCompilationUnits compilation units to replace or add, by file path; the map is emptied
+     * @throws IOException if the updated output cannot be written
+     * @throws IllegalArgumentException if the existing output is written in the string table encoding
+     */
+    static void mergeJSON(Path existingOutput, Map<String, JavaCompilationUnit> updatedCompilationUnits)
+            throws IOException {
+        Path temporaryOutput = existingOutput.resolveSibling(existingOutput.getFileName() + ".tmp");
+        try (JsonReader jsonReader = new JsonReader(Files.newBufferedReader(existingOutput, StandardCharsets.UTF_8));
+                Writer writer = Files.newBufferedWriter(temporaryOutput, StandardCharsets.UTF_8)) {
+            JsonWriter jsonWriter = newJsonWriter(writer);
+            jsonWriter.beginObject();
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+                if ("string_table".equals(name)) {
+                    // the existing compilation units refer to a string table that the merged output would not have
+                    throw new IllegalArgumentException("The analysis output " + existingOutput
+                            + " uses the string table encoding (--string-table) and cannot be updated with --target-files");
+                }
+                if (!"symbol_table".equals(name) || jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+                    jsonReader.skipValue();
+                    continue;
+                }
+                jsonReader.beginObject();
+                jsonWriter.name("symbol_table").beginObject();
+                while (jsonReader.hasNext()) {
+                    String filePath = jsonReader.nextName();
+                    jsonWriter.name(filePath);
+                    JavaCompilationUnit updatedCompilationUnit = updatedCompilationUnits.remove(filePath);
+                    if (updatedCompilationUnit != null) {
+                        jsonReader.skipValue();
+                        gson.toJson(updatedCompilationUnit, JavaCompilationUnit.class, jsonWriter);
+                    } else {
+                        copyValue(jsonReader, jsonWriter);
+                    }
+                }
+                jsonReader.endObject();
+                for (Map.Entry<String, JavaCompilationUnit> compilationUnit : updatedCompilationUnits.entrySet()) {
+                    jsonWriter.name(compilationUnit.getKey());
+                    gson.toJson(compilationUnit.getValue(), JavaCompilationUnit.class, jsonWriter);
+                }
+                updatedCompilationUnits.clear();
+                jsonWriter.endObject();
+            }
+            jsonReader.endObject();
+            if (!updatedCompilationUnits.isEmpty()) {
+                // the existing output has no symbol table to update
+                jsonWriter.name("symbol_table").beginObject();
+                for (Map.Entry<String, JavaCompilationUnit> compilationUnit : updatedCompilationUnits.entrySet()) {
+                    jsonWriter.name(compilationUnit.getKey());
+                    gson.toJson(compilationUnit.getValue(), JavaCompilationUnit.class, jsonWriter);
+                }
+                jsonWriter.endObject();
+            }
+            jsonWriter.name("version").value(getVersion());
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        } catch (IOException | IllegalStateException e) {
+            // leave the existing output untouched
+            Files.deleteIfExists(temporaryOutput);
             Log.error("Error reading analysis file: " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            Files.deleteIfExists(temporaryOutput);
+            throw e;
+        }
+        Files.move(temporaryOutput, existingOutput, StandardCopyOption.REPLACE_EXISTING);
+        Log.done("Analysis output saved at " + existingOutput.getParent());
+    }
+
+    /**
+     * Copies the next value from the given reader to the given writer, one token at a time.
+     */
+    private static void copyValue(JsonReader jsonReader, JsonWriter jsonWriter) throws IOException {
+        switch (jsonReader.peek()) {
+        case BEGIN_ARRAY:
+            jsonReader.beginArray();
+            jsonWriter.beginArray();
+            while (jsonReader.hasNext()) {
+                copyValue(jsonReader, jsonWriter);
+            }
+            jsonReader.endArray();
+            jsonWriter.endArray();
+            break;
+        case BEGIN_OBJECT:
+            jsonReader.beginObject();
+            jsonWriter.beginObject();
+            while (jsonReader.hasNext()) {
+                jsonWriter.name(jsonReader.nextName());
+                copyValue(jsonReader, jsonWriter);
+            }
+            jsonReader.endObject();
+            jsonWriter.endObject();
+            break;
+        case STRING:
+            jsonWriter.value(jsonReader.nextString());
+            break;
+        case NUMBER:
+            // keep the number exactly as written
+            jsonWriter.jsonValue(jsonReader.nextString());
+            break;
+        case BOOLEAN:
+            jsonWriter.value(jsonReader.nextBoolean());
+            break;
+        case NULL:
+            jsonReader.nextNull();
+            jsonWriter.nullValue();
+            break;
+        default:
+            throw new IllegalStateException("Unexpected JSON token: " + jsonReader.peek());
+        }
+    }
+
+    /**
+     * Creates a JSON writer that formats the output the way {@link #gson} does, unless compact output is requested.
+     */
+    private static JsonWriter newJsonWriter(Writer writer) {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setIndent(compact ? "" : "  ");
+        jsonWriter.setHtmlSafe(false);
+        jsonWriter.setSerializeNulls(true);
+        return jsonWriter;
+    }
+
+    /**
+     * Opens an NDJSON writer on the console, or on a temporary file in the output directory if one is specified,
+     * and writes the version record.
+     *
+     * @return NDJSON writer
+     * @throws IOException if the output file cannot be created
+     */
+    private static NDJSONWriter openNDJSONWriter() throws IOException {
+        NDJSONWriter ndjsonWriter;
+        if (output == null) {
+            // System.out must stay open, so the writer is flushed but not closed
+            ndjsonWriter = new NDJSONWriter(
+                    new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)), false);
+        } else {
+            Files.createDirectories(Paths.get(output));
+            ndjsonWriter = new NDJSONWriter(
+                    Files.newBufferedWriter(getNDJSONTemporaryOutputPath(), StandardCharsets.UTF_8), true);
+        }
+        ndjsonWriter.writeVersion(getVersion());
+        return ndjsonWriter;
+    }
+
+    /**
+     * Writes the remaining analysis output to the given NDJSON writer and closes it. Compilation units are written
+     * only if they have not been streamed during extraction already. For an incremental analysis of target files,
+     * the records of the existing output are carried over, with the records of the target files replaced.
+     *
+     * @param ndjsonWriter NDJSON writer returned by {@link #openNDJSONWriter()}
+     * @param symbolTable symbol table to write, or null if it has already been written
+     * @param callGraph call graph edges to write, or null if no call graph was constructed
+     * @throws IOException if writing fails
+     */
+    private static void emitNDJSON(NDJSONWriter ndjsonWriter, Map<String, JavaCompilationUnit> symbolTable,
+            List<Dependency> callGraph) throws IOException {
+        Path existingOutput = output == null ? null : Paths.get(output, ndjsonOutputFileName);
+        if (symbolTable != null && targetFiles != null && existingOutput != null && Files.exists(existingOutput)) {
+            mergeNDJSON(ndjsonWriter, existingOutput, symbolTable);
+        } else if (symbolTable != null) {
+            for (Map.Entry<String, JavaCompilationUnit> compilationUnit : symbolTable.entrySet()) {
+                ndjsonWriter.writeCompilationUnit(compilationUnit.getKey(), compilationUnit.getValue());
+            }
+        }
+        if (callGraph != null) {
+            for (Dependency edge : callGraph) {
+                ndjsonWriter.writeCallGraphEdge(edge);
+            }
+        }
+        ndjsonWriter.close();
+        if (output != null) {
+            Files.move(getNDJSONTemporaryOutputPath(), existingOutput, StandardCopyOption.REPLACE_EXISTING);
+            Log.done("Analysis output saved at " + output);
+        }
+    }
+
+    /**
+     * Copies the compilation unit records of an existing NDJSON output, replacing the records of the target files
+     * with their new symbol table information tagged as "updated", and appends the target files that are not in
+     * the existing output. Like for JSON output, records other than compilation units are not carried over.
+     */
+    private static void mergeNDJSON(NDJSONWriter ndjsonWriter, Path existingOutput,
+            Map<String, JavaCompilationUnit> symbolTable) throws IOException {
+        Map<String, JavaCompilationUnit> updatedCompilationUnits = getTargetCompilationUnits(symbolTable);
+        try (BufferedReader reader = Files.newBufferedReader(existingOutput, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                JsonObject record = line.isBlank() ? null : JsonParser.parseString(line).getAsJsonObject();
+                if (record == null || !record.has("symbol_table")) {
+                    continue;
+                }
+                String filePath = record.getAsJsonObject("symbol_table").keySet().iterator().next();
+                JavaCompilationUnit updatedCompilationUnit = updatedCompilationUnits.remove(filePath);
+                if (updatedCompilationUnit != null) {
+                    ndjsonWriter.writeCompilationUnit(filePath, updatedCompilationUnit);
+                } else {
+                    ndjsonWriter.writeLine(line);
+                }
+            }
+        }
+        for (Map.Entry<String, JavaCompilationUnit> compilationUnit : updatedCompilationUnits.entrySet()) {
+            ndjsonWriter.writeCompilationUnit(compilationUnit.getKey(), compilationUnit.getValue());
+        }
+    }
+
+    /**
+     * Returns the symbol table information of the target files, by absolute path, tagged as "updated".
+     */
+    private static Map<String, JavaCompilationUnit> getTargetCompilationUnits(
+            Map<String, JavaCompilationUnit> symbolTable) {
+        Map<String, JavaCompilationUnit> targetCompilationUnits = new LinkedHashMap<>();
+        for (String targetFile : targetFiles) {
+            String targetPathAbs = Paths.get(targetFile).toAbsolutePath().toString();
+            JavaCompilationUnit javaCompilationUnit = symbolTable.get(targetPathAbs);
+            if (javaCompilationUnit != null) {
+                javaCompilationUnit.setModified(true);
+                targetCompilationUnits.put(targetPathAbs, javaCompilationUnit);
+            }
+        }
+        return targetCompilationUnits;
+    }
+
+    private static Path getNDJSONTemporaryOutputPath() {
+        return Paths.get(output, ndjsonOutputFileName + ".tmp");
+    }
+
+    private static String getVersion() {
+        try {
+            String[] versions = new VersionProvider().getVersion();
+            return versions.length > 0 ? versions[0] : "unknown";
+        } catch (Exception e) {
+            return "error retrieving version";
         }
-        return null;
     }
 }
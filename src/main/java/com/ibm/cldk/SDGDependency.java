@@ -0,0 +1,37 @@
+/*
+Copyright IBM Corporation 2023, 2024
+
+Licensed under the Apache Public License 2.0, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.ibm.cldk;
+
+import com.ibm.cldk.entities.CallableVertex;
+import com.ibm.cldk.entities.SystemDepEdge;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+class SDGDependency extends Dependency {
+    public String sourceKind;
+    public String destinationKind;
+    public String type;
+    public String weight;
+
+    public SDGDependency(CallableVertex source, CallableVertex target, SystemDepEdge edge) {
+        super.source = source;
+        super.target = target;
+        this.sourceKind = edge.getSourceKind();
+        this.destinationKind = edge.getDestinationKind();
+        this.type = edge.getType();
+        this.weight = String.valueOf(edge.getWeight());
+    }
+}
@@ -12,38 +12,66 @@ import com.github.javaparser.ast.stmt.*;
 import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.printer.lexicalpreservation.LexicalPreservingPrinter;
+import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedMethodLikeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
 import com.github.javaparser.resolution.types.ResolvedType;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.cache.GuavaCache;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import com.github.javaparser.symbolsolver.utils.SymbolSolverCollectionStrategy;
 import com.github.javaparser.utils.ProjectRoot;
 import com.github.javaparser.utils.SourceRoot;
-import com.google.common.collect.Table;
-import com.google.common.collect.Tables;
+import com.google.common.cache.CacheBuilder;
 import com.ibm.cldk.entities.*;
 import com.ibm.cldk.javaee.CRUDFinderFactory;
 import com.ibm.cldk.javaee.EntrypointsFinderFactory;
 import com.ibm.cldk.javaee.utils.enums.CRUDOperationType;
 import com.ibm.cldk.javaee.utils.enums.CRUDQueryType;
+import com.ibm.cldk.utils.CallableSignatureIndex;
+import com.ibm.cldk.utils.FactProjection;
 import com.ibm.cldk.utils.Log;
+import com.ibm.cldk.utils.ProjectDirectoryScanner;
+import com.ibm.cldk.utils.ResolutionCache;
+import com.ibm.cldk.utils.SourceText;
+import com.ibm.cldk.utils.SymbolTableCache;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.apache.commons.lang3.tuple.Pair;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
 public class SymbolTable {
 
-    private static JavaSymbolSolver javaSymbolSolver;
-    private static Set<String> unresolvedTypes = new HashSet<>();
-    private static Set<String> unresolvedExpressions = new HashSet<>();
+    // The symbol solver is held per thread so that parallel extraction (--jobs) can give every worker its own
+    // solver; JavaParserFacade keeps non-thread-safe caches and must not be shared between workers.
+    private static final ThreadLocal<JavaSymbolSolver> javaSymbolSolver = new ThreadLocal<>();
+    // Resolved and unresolved expressions and types, keyed by source position and shared by all workers
+    private static final ResolutionCache resolutionCache = new ResolutionCache();
+    // Comment entities of the compilation unit being processed, by parsed comment: a comment in a callable is also
+    // listed by its type and its compilation unit, and all of them share one entity
+    private static final ThreadLocal<Map<Comment, com.ibm.cldk.entities.Comment>> unitComments = ThreadLocal
+            .withInitial(IdentityHashMap::new);
 
     /**
      * Processes the given compilation unit to extract information about classes
@@ -51,58 +79,49 @@ public class SymbolTable {
      * the extracted information.
      *
      * @param parseResult compilation unit to be processed
+     * @param sourceText source text to slice code from, or null to print code with the lexical preserving printer
      * @return JSON object containing extracted information
      */
     // Let's store the known callables here for future use.
-    public static Table<String, String, Callable> declaredMethodsAndConstructors = Tables
-            .newCustomTable(new HashMap<>(), () -> new HashMap<>() {
-                @Override
-                public Callable get(Object key) {
-                    if (key instanceof String) {
-                        Optional<Entry<String, Callable>> matchingEntry = this.entrySet().stream()
-                                .filter(entry -> isMethodSignatureMatch((String) key, entry.getKey())).findFirst();
-                        if (matchingEntry.isPresent()) {
-                            return matchingEntry.get().getValue();
-                        }
-                    }
-                    return super.get(key);
-                }
-
-                private boolean isMethodSignatureMatch(String fullSignature, String searchSignature) {
-                    String methodName = fullSignature.split("\\(")[0];
-                    String searchMethodName = searchSignature.split("\\(")[0];
+    public static CallableSignatureIndex declaredMethodsAndConstructors = new CallableSignatureIndex();
+    // Names of the types flagged as entry point classes, e.g., to build the call graph from their methods
+    public static Set<String> entrypointClasses = ConcurrentHashMap.newKeySet();
 
-                    // Check method name match
-                    if (!methodName.equals(searchMethodName)) {
-                        return false;
-                    }
+    // Optional facts to compute (--include/--exclude); facts that are not included are never computed
+    public static FactProjection projection = FactProjection.ALL;
 
-                    // Extract parameters, split by comma, and trim
-                    String[] fullParams = fullSignature
-                            .substring(fullSignature.indexOf("(") + 1, fullSignature.lastIndexOf(")")).split(",");
-                    String[] searchParams = searchSignature
-                            .substring(searchSignature.indexOf("(") + 1, searchSignature.lastIndexOf(")")).split(",");
+    // Whether code is printed with the lexical preserving printer instead of being sliced from the source text
+    public static boolean lexicalPreservingCode = false;
 
-                    // Allow matching with fewer search parameters
-                    if (searchParams.length != fullParams.length) {
-                        return false;
-                    }
+    // Jars of the resolved dependency classpath (--dependency-mode classpath), or null if it was not resolved
+    public static List<Path> dependencyClasspath;
 
-                    return IntStream.range(0, searchParams.length).allMatch(i -> {
-                        String fullParamTrimmed = fullParams[i].trim();
-                        String searchParamTrimmed = searchParams[i].trim();
-                        return fullParamTrimmed.endsWith(searchParamTrimmed);
-                    });
-                }
-            });
+    // Number of source files per worker that parallel extraction reads ahead of the consumer
+    private static final int READ_AHEAD_PER_WORKER = 4;
 
-    private static JavaCompilationUnit processCompilationUnit(CompilationUnit parseResult) {
+    private static JavaCompilationUnit processCompilationUnit(CompilationUnit parseResult, SourceText sourceText) {
         JavaCompilationUnit cUnit = new JavaCompilationUnit();
 
         cUnit.setFilePath(parseResult.getStorage().map(s -> s.getPath().toString()).orElse("<in-memory>"));
 
+        try {
+            collectFacts(cUnit, parseResult, sourceText);
+            return cUnit;
+        } finally {
+            // Resolutions are keyed by position within this unit, so they are of no further use, even if
+            // processing failed
+            resolutionCache.release(cUnit.getFilePath());
+            unitComments.get().clear();
+        }
+    }
+
+    /**
+     * Populates the given compilation unit with the facts of its parse result.
+     */
+    private static void collectFacts(JavaCompilationUnit cUnit, CompilationUnit parseResult, SourceText sourceText) {
         // Set file level comment
-        parseResult.getAllComments().stream().findFirst().ifPresent(c -> {
+        parseResult.getAllComments().stream().filter(c -> projection.includes(FactProjection.COMMENTS)).findFirst()
+                .ifPresent(c -> {
             com.ibm.cldk.entities.Comment fileComment = new com.ibm.cldk.entities.Comment();
             fileComment.setContent(c.getContent());
             fileComment.setStartLine(c.getRange().isPresent() ? c.getRange().get().begin.line : -1);
@@ -115,16 +134,8 @@ public class SymbolTable {
 
         // Add class comment
         cUnit.setComments(
-                parseResult.getAllComments().stream().map(c -> {
-                            com.ibm.cldk.entities.Comment fileComment = new com.ibm.cldk.entities.Comment();
-                            fileComment.setContent(c.getContent());
-                            fileComment.setStartLine(c.getRange().isPresent() ? c.getRange().get().begin.line : -1);
-                            fileComment.setEndLine(c.getRange().isPresent() ? c.getRange().get().end.line : -1);
-                            fileComment.setStartColumn(c.getRange().isPresent() ? c.getRange().get().begin.column : -1);
-                            fileComment.setEndColumn(c.getRange().isPresent() ? c.getRange().get().end.column : -1);
-                            fileComment.setJavadoc(c.isJavadocComment());
-                            return fileComment;
-                        })
+                parseResult.getAllComments().stream().filter(c -> projection.includes(FactProjection.COMMENTS))
+                        .map(SymbolTable::toComment)
                         .collect(Collectors.toList()));
 
         // Set package name
@@ -218,7 +229,7 @@ public class SymbolTable {
                     typeNode.setInitializationBlocks(typeDecl.findAll(InitializerDeclaration.class).stream()
                             .map(initializerDeclaration -> {
                                 return createInitializationBlock(initializerDeclaration, parseResult.getStorage()
-                                        .map(s -> s.getPath().toString()).orElse("<in-memory>"));
+                                        .map(s -> s.getPath().toString()).orElse("<in-memory>"), sourceText);
                             })
                             .collect(Collectors.toList()));
                     // Set fields indicating nested, class/interface, enum, annotation, and record
@@ -231,22 +242,14 @@ public class SymbolTable {
                     // Add class comment
                     typeNode.setComments(
                             typeDecl.getAllContainedComments().stream()
+                            .filter(c -> projection.includes(FactProjection.COMMENTS))
 //                            .filter(c -> c.getParentNode().isEmpty() || (c.getParentNode().isPresent() && parseResult.getPrimaryType().get().equals(c.getCommentedNode().get())))
-                            .map(c -> {
-                                com.ibm.cldk.entities.Comment typeNodeComment = new com.ibm.cldk.entities.Comment();
-                                typeNodeComment.setContent(c.getContent());
-                                typeNodeComment.setStartLine(c.getRange().isPresent() ? c.getRange().get().begin.line : -1);
-                                typeNodeComment.setEndLine(c.getRange().isPresent() ? c.getRange().get().end.line : -1);
-                                typeNodeComment.setStartColumn(c.getRange().isPresent() ? c.getRange().get().begin.column : -1);
-                                typeNodeComment.setEndColumn(c.getRange().isPresent() ? c.getRange().get().end.column : -1);
-                                typeNodeComment.setJavadoc(c.isJavadocComment());
-                                return typeNodeComment;
-                            })
+                            .map(SymbolTable::toComment)
                             .collect(Collectors.toList()));
 
                     // Get JavaDoc comments
                     // Check to see if there is a java doc comment if so, add it to the comments list
-                    if (getJavadoc(typeDecl).isPresent()) {
+                    if (projection.includes(FactProjection.COMMENTS) && getJavadoc(typeDecl).isPresent()) {
                         typeNode.getComments().add(getJavadoc(typeDecl).get());
                     }
 
@@ -266,34 +269,80 @@ public class SymbolTable {
                     typeNode.setFieldDeclarations(typeDecl.findAll(FieldDeclaration.class).stream()
                             .filter(f -> f.getParentNode().isPresent() && f.getParentNode().get() == typeDecl)
                             .map(SymbolTable::processFieldDeclaration).collect(Collectors.toList()));
-                    List<String> fieldNames = new ArrayList<>();
+                    Set<String> fieldNames = new HashSet<>();
                     typeNode.getFieldDeclarations().stream().map(Field::getVariables).forEach(fieldNames::addAll);
 
                     // Add information about declared methods (filtering to methods declared in the
                     // class, not in a nested class)
                     typeNode.setCallableDeclarations(typeDecl.findAll(CallableDeclaration.class).stream()
                             .filter(c -> c.getParentNode().isPresent() && c.getParentNode().get() == typeDecl)
-                            .map(meth -> {
-                                Pair<String, Callable> callableDeclaration = processCallableDeclaration(meth,
+                            .map(meth -> processCallableDeclaration(meth,
                                         fieldNames, typeName, parseResult.getStorage().map(s -> s.getPath().toString())
-                                                .orElse("<in-memory>"));
-                                declaredMethodsAndConstructors.put(typeName, callableDeclaration.getLeft(),
-                                        callableDeclaration.getRight());
-                                return callableDeclaration;
-                            }).collect(Collectors.toMap(p -> p.getLeft(), p -> p.getRight())));
+                                                .orElse("<in-memory>"), sourceText)).collect(Collectors.toMap(p -> p.getLeft(), p -> p.getRight())));
 
                     // Add information about if the TypeNode is an entry point class
                     typeNode.setEntrypointClass(isEntryPointClass(typeDecl));
+                    if (typeNode.isEntrypointClass()) {
+                        entrypointClasses.add(typeName);
+                    }
 
                     return Pair.of(typeName, typeNode);
 
                 }).collect(Collectors.toMap(p -> p.getLeft(), p -> p.getRight())));
+    }
+
+    /**
+     * Returns the comment entity of the given parsed comment, creating it on first use within the compilation unit.
+     */
+    private static com.ibm.cldk.entities.Comment toComment(Comment c) {
+        return unitComments.get().computeIfAbsent(c, parsedComment -> {
+            com.ibm.cldk.entities.Comment comment = new com.ibm.cldk.entities.Comment();
+            comment.setContent(c.getContent());
+            comment.setStartLine(c.getRange().isPresent() ? c.getRange().get().begin.line : -1);
+            comment.setEndLine(c.getRange().isPresent() ? c.getRange().get().end.line : -1);
+            comment.setStartColumn(c.getRange().isPresent() ? c.getRange().get().begin.column : -1);
+            comment.setEndColumn(c.getRange().isPresent() ? c.getRange().get().end.column : -1);
+            comment.setJavadoc(c.isJavadocComment());
+            return comment;
+        });
+    }
 
-        return cUnit;
+    /**
+     * Prepares the given compilation unit for processing. The lexical preserving printer is only set up if the code
+     * of callables is included in the projection and printed with it, as setting it up is expensive.
+     */
+    private static CompilationUnit setupCompilationUnit(CompilationUnit compilationUnit) {
+        return lexicalPreservingCode && projection.includes(FactProjection.CODE)
+                ? LexicalPreservingPrinter.setup(compilationUnit)
+                : compilationUnit;
+    }
+
+    /**
+     * Returns the source text that the code of callables in the given source file is sliced from.
+     *
+     * @return source text, or null if the code is printed with the lexical preserving printer or not included in the
+     *         projection
+     */
+    private static SourceText openSourceText(Path sourceFile, JavaParser javaParser) throws IOException {
+        if (lexicalPreservingCode || !projection.includes(FactProjection.CODE)) {
+            return null;
+        }
+        return SourceText.map(sourceFile, javaParser.getParserConfiguration().getCharacterEncoding());
+    }
+
+    /**
+     * Returns the code of the given node as it appears in the source.
+     *
+     * @param node node to print
+     * @param sourceText source text to slice the code from, or null to print it with the lexical preserving printer
+     * @return code of the node
+     */
+    private static String printCode(Node node, SourceText sourceText) {
+        return sourceText != null ? sourceText.slice(node.getRange().get()) : LexicalPreservingPrinter.print(node);
     }
 
     private static InitializationBlock createInitializationBlock(InitializerDeclaration initializerDeclaration,
-            String filePath) {
+            String filePath, SourceText sourceText) {
         InitializationBlock initializationBlock = new InitializationBlock();
         initializationBlock.setFilePath(filePath);
 
@@ -302,20 +351,13 @@ public class SymbolTable {
         // Add class comment
         initializationBlock.setComments(
                 initializerDeclaration.getAllContainedComments().stream()
-                        .map(c -> {
-                            com.ibm.cldk.entities.Comment typeNodeComment = new com.ibm.cldk.entities.Comment();
-                            typeNodeComment.setContent(c.getContent());
-                            typeNodeComment.setStartLine(c.getRange().isPresent() ? c.getRange().get().begin.line : -1);
-                            typeNodeComment.setEndLine(c.getRange().isPresent() ? c.getRange().get().end.line : -1);
-                            typeNodeComment.setStartColumn(c.getRange().isPresent() ? c.getRange().get().begin.column : -1);
-                            typeNodeComment.setEndColumn(c.getRange().isPresent() ? c.getRange().get().end.column : -1);
-                            typeNodeComment.setJavadoc(c.isJavadocComment());
-                            return typeNodeComment;
-                        })
+                        .filter(c -> projection.includes(FactProjection.COMMENTS))
+                        .map(SymbolTable::toComment)
                         .collect(Collectors.toList()));
 
         // Check to see if there is a java doc comment if so, add it to the comments list
-        getJavadoc(initializerDeclaration).ifPresent(value -> initializationBlock.getComments().add(value));
+        getJavadoc(initializerDeclaration).filter(value -> projection.includes(FactProjection.COMMENTS))
+                .ifPresent(value -> initializationBlock.getComments().add(value));
 
 
         // Set annotations
@@ -325,26 +367,27 @@ public class SymbolTable {
         initializationBlock.setThrownExceptions(initializerDeclaration.getBody().getStatements().stream()
                 .filter(Statement::isThrowStmt).map(throwStmt -> {
                     try {
-                        return javaSymbolSolver.calculateType(throwStmt.asThrowStmt().getExpression()).describe();
+                        return javaSymbolSolver.get().calculateType(throwStmt.asThrowStmt().getExpression()).describe();
                     } catch (Exception e) {
                         return throwStmt.asThrowStmt().getExpression().toString();
                     }
                 }).collect(Collectors.toList()));
-        initializationBlock.setCode(LexicalPreservingPrinter.print(initializerDeclaration.getBody()));
+        initializationBlock.setCode(projection.includes(FactProjection.CODE)
+                ? printCode(initializerDeclaration.getBody(), sourceText)
+                : "");
         initializationBlock.setStartLine(
                 initializerDeclaration.getRange().isPresent() ? initializerDeclaration.getRange().get().begin.line
                         : -1);
         initializationBlock.setEndLine(
                 initializerDeclaration.getRange().isPresent() ? initializerDeclaration.getRange().get().end.line : -1);
         initializationBlock.setStatic(initializerDeclaration.isStatic());
-        initializationBlock
-                .setReferencedTypes(getReferencedTypes(Optional.ofNullable(initializerDeclaration.getBody())));
-        initializationBlock.setAccessedFields(
-                getAccessedFields(Optional.ofNullable(initializerDeclaration.getBody()), Collections.emptyList(), ""));
-        initializationBlock.setCallSites(getCallSites(Optional.ofNullable(initializerDeclaration.getBody())));
-        initializationBlock.setVariableDeclarations(
-                getVariableDeclarations(Optional.ofNullable(initializerDeclaration.getBody())));
-        initializationBlock.setCyclomaticComplexity(getCyclomaticComplexity(initializerDeclaration));
+        CallableBodyFacts bodyFacts = CallableBodyFacts.collect(Optional.ofNullable(initializerDeclaration.getBody()),
+                Collections.emptySet(), "");
+        initializationBlock.setReferencedTypes(bodyFacts.getReferencedTypes());
+        initializationBlock.setAccessedFields(bodyFacts.getAccessedFields());
+        initializationBlock.setCallSites(bodyFacts.getCallSites());
+        initializationBlock.setVariableDeclarations(bodyFacts.variableDeclarations);
+        initializationBlock.setCyclomaticComplexity(bodyFacts.cyclomaticComplexity);
         return initializationBlock;
     }
 
@@ -485,32 +528,26 @@ public class SymbolTable {
      */
     @SuppressWarnings("unchecked")
     private static Pair<String, Callable> processCallableDeclaration(CallableDeclaration callableDecl,
-            List<String> classFields, String typeName, String filePath) {
+            Set<String> classFields, String typeName, String filePath, SourceText sourceText) {
         Callable callableNode = new Callable();
 
         // Set file path
         callableNode.setFilePath(filePath);
 
         // add callable signature
-        callableNode.setSignature(getTypeErasureSignature(callableDecl));
+        String callableSignature = getTypeErasureSignature(callableDecl);
+        callableNode.setSignature(callableSignature);
 
         // add comment associated with method/constructor
         callableNode.setComments(
                 callableDecl.getAllContainedComments().stream()
-                        .map(c -> {
-                            com.ibm.cldk.entities.Comment methodComment = new com.ibm.cldk.entities.Comment();
-                            methodComment.setContent(c.getContent());
-                            methodComment.setStartLine(c.getRange().isPresent() ? c.getRange().get().begin.line : -1);
-                            methodComment.setEndLine(c.getRange().isPresent() ? c.getRange().get().end.line : -1);
-                            methodComment.setStartColumn(c.getRange().isPresent() ? c.getRange().get().begin.column : -1);
-                            methodComment.setEndColumn(c.getRange().isPresent() ? c.getRange().get().end.column : -1);
-                            methodComment.setJavadoc(c.isJavadocComment());
-                            return methodComment;
-                        })
+                        .filter(c -> projection.includes(FactProjection.COMMENTS))
+                        .map(SymbolTable::toComment)
                         .collect(Collectors.toList()));
 
         // Check to see if there are JavaDoc comments
-        getJavadoc(callableDecl).ifPresent(value -> callableNode.getComments().add(value));
+        getJavadoc(callableDecl).filter(value -> projection.includes(FactProjection.COMMENTS))
+                .ifPresent(value -> callableNode.getComments().add(value));
 
         // add annotations on method/constructor
         callableNode.setAnnotations((List<String>) callableDecl.getAnnotations().stream()
@@ -553,26 +590,21 @@ public class SymbolTable {
         callableNode.setConstructor(callableDecl instanceof ConstructorDeclaration);
         callableNode.setStartLine(callableDecl.getRange().isPresent() ? callableDecl.getRange().get().begin.line : -1);
         callableNode.setEndLine(callableDecl.getRange().isPresent() ? callableDecl.getRange().get().end.line : -1);
-        callableNode.setReferencedTypes(getReferencedTypes(body));
-        callableNode.setCode(body.isPresent() ? LexicalPreservingPrinter.print(body.get()) : "");
+        // Collect all facts about the body in a single traversal
+        CallableBodyFacts bodyFacts = CallableBodyFacts.collect(body, classFields, typeName);
+        callableNode.setReferencedTypes(bodyFacts.getReferencedTypes());
+        callableNode.setCode(body.isPresent() && projection.includes(FactProjection.CODE)
+                ? printCode(body.get(), sourceText)
+                : "");
         callableNode.setCodeStartLine(body.isPresent()? body.get().getBegin().get().line : -1);
 
-        callableNode.setAccessedFields(getAccessedFields(body, classFields, typeName));
-        callableNode.setCallSites(getCallSites(body));
-        callableNode.setCrudOperations(
-                callableNode.getCallSites().stream()
-                        .map(CallSite::getCrudOperation)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList()));
-        callableNode.setCrudQueries(
-                callableNode.getCallSites().stream()
-                        .map(CallSite::getCrudQuery)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList()));
-        callableNode.setVariableDeclarations(getVariableDeclarations(body));
-        callableNode.setCyclomaticComplexity(getCyclomaticComplexity(callableDecl));
+        callableNode.setAccessedFields(bodyFacts.getAccessedFields());
+        callableNode.setCallSites(bodyFacts.getCallSites());
+        callableNode.setCrudOperations(bodyFacts.crudOperations);
+        callableNode.setCrudQueries(bodyFacts.crudQueries);
+        callableNode.setVariableDeclarations(bodyFacts.variableDeclarations);
+        callableNode.setCyclomaticComplexity(bodyFacts.cyclomaticComplexity);
 
-        String callableSignature = getTypeErasureSignature(callableDecl);
         return Pair.of(callableSignature, callableNode);
     }
 
@@ -634,38 +666,6 @@ public class SymbolTable {
     }
 
 
-    /**
-     * Computes cyclomatic complexity for the given callable.
-     *
-     * @param callableDeclaration Callable to compute cyclomatic complexity for
-     * @return cyclomatic complexity
-     */
-    private static int getCyclomaticComplexity(CallableDeclaration callableDeclaration) {
-        int ifStmtCount = callableDeclaration.findAll(IfStmt.class).size();
-        int loopStmtCount = callableDeclaration.findAll(DoStmt.class).size()
-                + callableDeclaration.findAll(ForStmt.class).size()
-                + callableDeclaration.findAll(ForEachStmt.class).size()
-                + callableDeclaration.findAll(WhileStmt.class).size();
-        int switchCaseCount = callableDeclaration.findAll(SwitchStmt.class).stream()
-                .map(stmt -> stmt.getEntries().size()).reduce(0, Integer::sum);
-        int conditionalExprCount = callableDeclaration.findAll(ConditionalExpr.class).size();
-        int catchClauseCount = callableDeclaration.findAll(CatchClause.class).size();
-        return ifStmtCount + loopStmtCount + switchCaseCount + conditionalExprCount + catchClauseCount + 1;
-    }
-
-    private static int getCyclomaticComplexity(InitializerDeclaration initializerDeclaration) {
-        int ifStmtCount = initializerDeclaration.findAll(IfStmt.class).size();
-        int loopStmtCount = initializerDeclaration.findAll(DoStmt.class).size()
-                + initializerDeclaration.findAll(ForStmt.class).size()
-                + initializerDeclaration.findAll(ForEachStmt.class).size()
-                + initializerDeclaration.findAll(WhileStmt.class).size();
-        int switchCaseCount = initializerDeclaration.findAll(SwitchStmt.class).stream()
-                .map(stmt -> stmt.getEntries().size()).reduce(0, Integer::sum);
-        int conditionalExprCount = initializerDeclaration.findAll(ConditionalExpr.class).size();
-        int catchClauseCount = initializerDeclaration.findAll(CatchClause.class).size();
-        return ifStmtCount + loopStmtCount + switchCaseCount + conditionalExprCount + catchClauseCount + 1;
-    }
-
     /**
      * Processes the given field declaration to extract information about the
      * declared field and returns a JSON object containing the extracted
@@ -707,7 +707,7 @@ public class SymbolTable {
         field.setType(resolveType(fieldDecl.getCommonType()));
 
         // add field start and end lines
-        field.setStartLine(fieldDecl.getRange().isPresent() ? fieldDecl.getRange().get().begin.line : null);
+        field.setStartLine(fieldDecl.getRange().isPresent() ? fieldDecl.getRange().get().begin.line : -1);
 
         field.setEndLine(fieldDecl.getRange().get().end.line);
 
@@ -715,253 +715,328 @@ public class SymbolTable {
     }
 
     /**
-     * Computes and returns the set of types references in a block of statement
-     * (method or constructor body).
-     *
-     * @param blockStmt Block statement to compute referenced types for
-     * @return List of types referenced in the block statement
+     * Facts about a callable (or initializer) body that are collected in a single pre-order traversal of the body:
+     * referenced types, variable declarations, accessed fields, call sites along with their CRUD operations and
+     * queries, and cyclomatic complexity. Each kind of fact is listed in the order in which a separate
+     * {@code findAll()} pass over the body would have found it.
      */
-    private static List<String> getReferencedTypes(Optional<BlockStmt> blockStmt) {
-        Set<String> referencedTypes = new HashSet<>();
-        blockStmt.ifPresent(
-                bs -> bs.findAll(VariableDeclarator.class).stream().filter(vd -> vd.getType().isClassOrInterfaceType())
-                        .map(vd -> resolveType(vd.getType())).forEach(referencedTypes::add));
-
-        // add types of accessed fields to the set of referenced types
-        blockStmt.ifPresent(
-                bs -> bs.findAll(FieldAccessExpr.class).stream().filter(faExpr -> faExpr.getParentNode().isPresent()
-                        && !(faExpr.getParentNode().get() instanceof FieldAccessExpr)).map(faExpr -> {
-                            if (faExpr.getParentNode().isPresent()
-                                    && faExpr.getParentNode().get() instanceof CastExpr) {
-                                return resolveType(((CastExpr) faExpr.getParentNode().get()).getType());
-                            } else {
-                                return resolveExpression(faExpr);
-                            }
-                        }).filter(type -> !type.isEmpty()).forEach(referencedTypes::add));
-
-        // TODO: add resolved method access expressions
-        return new ArrayList<>(referencedTypes);
-    }
+    private static final class CallableBodyFacts {
+        private final Set<String> classFields;
+        private final String typeName;
+
+        private final List<String> declaredVariableTypes = new ArrayList<>();
+        private final List<String> accessedFieldTypes = new ArrayList<>();
+        private final List<String> fieldAccesses = new ArrayList<>();
+        private final List<String> fieldNameAccesses = new ArrayList<>();
+        private final List<VariableDeclaration> variableDeclarations = new ArrayList<>();
+        private final List<CallSite> methodCallSites = new ArrayList<>();
+        private final List<CallSite> constructorCallSites = new ArrayList<>();
+        private final List<CRUDOperation> crudOperations = new ArrayList<>();
+        private final List<CRUDQuery> crudQueries = new ArrayList<>();
+        private int cyclomaticComplexity = 1;
+
+        private final boolean collectCallSites = projection.includes(FactProjection.CALL_SITES);
+        private final boolean collectVariableDeclarations = projection.includes(FactProjection.VARIABLE_DECLARATIONS);
+        private final boolean collectAccessedFields = projection.includes(FactProjection.ACCESSED_FIELDS);
+        private final boolean collectReferencedTypes = projection.includes(FactProjection.REFERENCED_TYPES);
+        private final boolean collectCrudOperations = projection.includes(FactProjection.CRUD_OPERATIONS);
+        private final boolean collectCrudQueries = projection.includes(FactProjection.CRUD_QUERIES);
+
+        private CallableBodyFacts(Set<String> classFields, String typeName) {
+            this.classFields = classFields;
+            this.typeName = typeName;
+        }
 
-    /**
-     * Returns information about variable declarations in the given callable.
-     * The information includes var name, var type, var initializer, and
-     * position.
-     *
-     * @param blockStmt Callable to compute var declaration information for
-     * @return list of variable declarations
-     */
-    private static List<VariableDeclaration> getVariableDeclarations(Optional<BlockStmt> blockStmt) {
-        List<VariableDeclaration> varDeclarations = new ArrayList<>();
-        if (blockStmt.isEmpty()) {
-            return varDeclarations;
+        /**
+         * Collects the facts of the given body.
+         *
+         * @param body body to collect facts for; an absent body (abstract method) has no facts
+         * @param classFields names of the fields declared in the class declaring the body
+         * @param typeName name of the class declaring the body
+         * @return collected facts
+         */
+        @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+        private static CallableBodyFacts collect(Optional<BlockStmt> body, Set<String> classFields, String typeName) {
+            CallableBodyFacts facts = new CallableBodyFacts(classFields, typeName);
+            body.ifPresent(blockStmt -> blockStmt.walk(facts::visit));
+            return facts;
         }
-        for (VariableDeclarator declarator : blockStmt.get().findAll(VariableDeclarator.class)) {
-            VariableDeclaration varDeclaration = new VariableDeclaration();
-            com.ibm.cldk.entities.Comment comment = new com.ibm.cldk.entities.Comment();
-            if (declarator.getComment().isPresent()) {
-                Comment parsedComment = declarator.getComment().get();
-                comment.setContent(parsedComment.getContent().isBlank() ? "" : parsedComment.getContent().isEmpty() ? "" : parsedComment.getContent());
-                parsedComment.getRange().ifPresent(range -> {
-                    comment.setStartLine(range.begin.line);
-                    comment.setEndLine(range.end.line);
-                    comment.setStartColumn(range.begin.column);
-                    comment.setEndColumn(range.end.column);
-                });
+
+        private void visit(Node node) {
+            if (node instanceof VariableDeclarator) {
+                VariableDeclarator declarator = (VariableDeclarator) node;
+                if (collectReferencedTypes && declarator.getType().isClassOrInterfaceType()) {
+                    declaredVariableTypes.add(resolveType(declarator.getType()));
+                }
+                if (collectVariableDeclarations) {
+                    variableDeclarations.add(processVariableDeclarator(declarator));
+                }
+            } else if (node instanceof FieldAccessExpr) {
+                if (collectReferencedTypes || collectAccessedFields) {
+                    visitFieldAccess((FieldAccessExpr) node);
+                }
+            } else if (node instanceof NameExpr) {
+                if (!collectAccessedFields) {
+                    return;
+                }
+                // match names against names of declared fields in class TODO: handle local variable declarations
+                // with the same name
+                String name = ((NameExpr) node).getNameAsString();
+                if (classFields.contains(name)) {
+                    fieldNameAccesses.add(typeName + "." + name);
+                }
+            } else if (node instanceof MethodCallExpr) {
+                // CRUD operations and queries are detected on call sites
+                if (!collectCallSites && !collectCrudOperations && !collectCrudQueries) {
+                    return;
+                }
+                CallSite callSite = createMethodCallSite((MethodCallExpr) node);
+                if (collectCallSites) {
+                    methodCallSites.add(callSite);
+                }
+                if (collectCrudOperations && callSite.getCrudOperation() != null) {
+                    crudOperations.add(callSite.getCrudOperation());
+                }
+                if (collectCrudQueries && callSite.getCrudQuery() != null) {
+                    crudQueries.add(callSite.getCrudQuery());
+                }
+            } else if (node instanceof ObjectCreationExpr) {
+                if (collectCallSites) {
+                    constructorCallSites.add(createConstructorCallSite((ObjectCreationExpr) node));
+                }
+            } else if (node instanceof IfStmt || node instanceof DoStmt || node instanceof ForStmt
+                    || node instanceof ForEachStmt || node instanceof WhileStmt || node instanceof ConditionalExpr
+                    || node instanceof CatchClause) {
+                cyclomaticComplexity++;
+            } else if (node instanceof SwitchStmt) {
+                cyclomaticComplexity += ((SwitchStmt) node).getEntries().size();
             }
-            varDeclaration.setComment(comment);
-            varDeclaration.setName(declarator.getNameAsString());
-            varDeclaration.setType(resolveType(declarator.getType()));
-            varDeclaration.setInitializer(
-                    declarator.getInitializer().isPresent() ? declarator.getInitializer().get().toString() : "");
-            if (declarator.getRange().isPresent()) {
-                varDeclaration.setStartLine(declarator.getRange().get().begin.line);
-                varDeclaration.setStartColumn(declarator.getRange().get().begin.column);
-                varDeclaration.setEndLine(declarator.getRange().get().end.line);
-                varDeclaration.setEndColumn(declarator.getRange().get().end.column);
-            } else {
-                varDeclaration.setStartLine(-1);
-                varDeclaration.setStartColumn(-1);
-                varDeclaration.setEndLine(-1);
-                varDeclaration.setEndColumn(-1);
+        }
+
+        private void visitFieldAccess(FieldAccessExpr faExpr) {
+            // only consider the outermost expression of a field access chain
+            Optional<Node> parentNode = faExpr.getParentNode();
+            if (parentNode.isEmpty() || parentNode.get() instanceof FieldAccessExpr) {
+                return;
+            }
+
+            // add types of accessed fields to the set of referenced types
+            if (collectReferencedTypes) {
+                String accessedFieldType = parentNode.get() instanceof CastExpr
+                        ? resolveType(((CastExpr) parentNode.get()).getType())
+                        : resolveExpression(faExpr);
+                if (!accessedFieldType.isEmpty()) {
+                    accessedFieldTypes.add(accessedFieldType);
+                }
+            }
+
+            if (!collectAccessedFields) {
+                return;
             }
-            varDeclarations.add(varDeclaration);
+            String fieldDeclaringType = resolveExpression(faExpr.getScope());
+            fieldAccesses.add(fieldDeclaringType.isEmpty() ? faExpr.getNameAsString()
+                    : fieldDeclaringType + "." + faExpr.getNameAsString());
+        }
+
+        /**
+         * Returns the set of types referenced in the body.
+         */
+        private List<String> getReferencedTypes() {
+            // TODO: add resolved method access expressions
+            Set<String> referencedTypes = new HashSet<>();
+            referencedTypes.addAll(declaredVariableTypes);
+            referencedTypes.addAll(accessedFieldTypes);
+            return new ArrayList<>(referencedTypes);
+        }
+
+        /**
+         * Returns the fields accessed in the body, qualified by names of the declaring types.
+         */
+        private List<String> getAccessedFields() {
+            Set<String> accessedFields = new HashSet<>();
+            accessedFields.addAll(fieldAccesses);
+            accessedFields.addAll(fieldNameAccesses);
+            return new ArrayList<>(accessedFields);
+        }
+
+        /**
+         * Returns the method call sites followed by the constructor call sites in the body.
+         */
+        private List<CallSite> getCallSites() {
+            List<CallSite> callSites = new ArrayList<>(methodCallSites);
+            callSites.addAll(constructorCallSites);
+            return callSites;
         }
-        return varDeclarations;
     }
 
     /**
-     * Computes and returns the list of fields accessed in the given callable
-     * body. The returned values contain field names qualified by names of the
-     * declaring types.
+     * Returns information about the given variable declaration. The information
+     * includes var name, var type, var initializer, and position.
      *
-     * @param callableBody Callable body to compute accessed fields for
-     * @return List of fully qualified field names
+     * @param declarator variable declarator to be processed
+     * @return variable declaration
      */
-    private static List<String> getAccessedFields(Optional<BlockStmt> callableBody, List<String> classFields,
-            String typeName) {
-        Set<String> accessedFields = new HashSet<>();
-
-        // process field access expressions in the callable
-        callableBody.ifPresent(
-                cb -> cb.findAll(FieldAccessExpr.class).stream().filter(faExpr -> faExpr.getParentNode().isPresent()
-                        && !(faExpr.getParentNode().get() instanceof FieldAccessExpr)).map(faExpr -> {
-                            String fieldDeclaringType = resolveExpression(faExpr.getScope());
-                            if (!fieldDeclaringType.isEmpty()) {
-                                return fieldDeclaringType + "." + faExpr.getNameAsString();
-                            } else {
-                                return faExpr.getNameAsString();
-                            }
-                        }).forEach(accessedFields::add));
-
-        // process all names expressions in callable and match against names of declared
-        // fields
-        // in class TODO: handle local variable declarations with the same name
-        if (callableBody.isPresent()) {
-            for (NameExpr nameExpr : callableBody.get().findAll(NameExpr.class)) {
-                for (String fieldName : classFields) {
-                    if (nameExpr.getNameAsString().equals(fieldName)) {
-                        accessedFields.add(typeName + "." + nameExpr.getNameAsString());
-                    }
-                }
-            }
+    private static VariableDeclaration processVariableDeclarator(VariableDeclarator declarator) {
+        VariableDeclaration varDeclaration = new VariableDeclaration();
+        com.ibm.cldk.entities.Comment comment = new com.ibm.cldk.entities.Comment();
+        if (declarator.getComment().isPresent()) {
+            Comment parsedComment = declarator.getComment().get();
+            comment.setContent(parsedComment.getContent().isBlank() ? "" : parsedComment.getContent().isEmpty() ? "" : parsedComment.getContent());
+            parsedComment.getRange().ifPresent(range -> {
+                comment.setStartLine(range.begin.line);
+                comment.setEndLine(range.end.line);
+                comment.setStartColumn(range.begin.column);
+                comment.setEndColumn(range.end.column);
+            });
         }
-
-        return new ArrayList<>(accessedFields);
+        varDeclaration.setComment(comment);
+        varDeclaration.setName(declarator.getNameAsString());
+        varDeclaration.setType(resolveType(declarator.getType()));
+        varDeclaration.setInitializer(
+                declarator.getInitializer().isPresent() ? declarator.getInitializer().get().toString() : "");
+        if (declarator.getRange().isPresent()) {
+            varDeclaration.setStartLine(declarator.getRange().get().begin.line);
+            varDeclaration.setStartColumn(declarator.getRange().get().begin.column);
+            varDeclaration.setEndLine(declarator.getRange().get().end.line);
+            varDeclaration.setEndColumn(declarator.getRange().get().end.column);
+        } else {
+            varDeclaration.setStartLine(-1);
+            varDeclaration.setStartColumn(-1);
+            varDeclaration.setEndLine(-1);
+            varDeclaration.setEndColumn(-1);
+        }
+        return varDeclaration;
     }
 
     /**
-     * Returns information about call sites in the given callable. The
-     * information includes: the method name, the declaring type name, and types
-     * of arguments used in method call.
+     * Returns information about the given method call site. The information
+     * includes: the method name, the declaring type name, types of arguments
+     * used in method call, and the CRUD operation or query performed by the call.
      *
-     * @param callableBody callable to compute call-site information for
-     * @return list of call sites
+     * @param methodCallExpr method call to compute call-site information for
+     * @return call site
      */
-    @SuppressWarnings({ "OptionalUsedAsFieldOrParameterType" })
-    private static List<CallSite> getCallSites(Optional<BlockStmt> callableBody) {
-        List<CallSite> callSites = new ArrayList<>();
-        if (callableBody.isEmpty()) {
-            return callSites;
-        }
-        for (MethodCallExpr methodCallExpr : callableBody.get().findAll(MethodCallExpr.class)) {
-            // resolve declaring type for called method
-            boolean isStaticCall = false;
-            String declaringType = "";
-            String receiverName = "";
-            String returnType = "";
-            if (methodCallExpr.getScope().isPresent()) {
-                Expression scopeExpr = methodCallExpr.getScope().get();
-                receiverName = scopeExpr.toString();
-                declaringType = resolveExpression(scopeExpr);
-                if (declaringType.contains(" | ")) {
-                    declaringType = declaringType.split(" \\| ")[0];
-                }
-                String declaringTypeName = declaringType.contains(".")
-                        ? declaringType.substring(declaringType.lastIndexOf(".") + 1)
-                        : declaringType;
-                if (declaringTypeName.equals(scopeExpr.toString())) {
-                    isStaticCall = true;
-                }
+    private static CallSite createMethodCallSite(MethodCallExpr methodCallExpr) {
+        // resolve declaring type for called method
+        boolean isStaticCall = false;
+        String declaringType = "";
+        String receiverName = "";
+        String returnType = "";
+        if (methodCallExpr.getScope().isPresent()) {
+            Expression scopeExpr = methodCallExpr.getScope().get();
+            receiverName = scopeExpr.toString();
+            declaringType = resolveExpression(scopeExpr);
+            if (declaringType.contains(" | ")) {
+                declaringType = declaringType.split(" \\| ")[0];
             }
-
-            // compute return type for method call taking into account typecast of return
-            // value
-            if (methodCallExpr.getParentNode().isPresent()
-                    && methodCallExpr.getParentNode().get() instanceof CastExpr) {
-                returnType = resolveType(((CastExpr) methodCallExpr.getParentNode().get()).getType());
-            } else {
-                returnType = resolveExpression(methodCallExpr);
+            String declaringTypeName = declaringType.contains(".")
+                    ? declaringType.substring(declaringType.lastIndexOf(".") + 1)
+                    : declaringType;
+            if (declaringTypeName.equals(scopeExpr.toString())) {
+                isStaticCall = true;
             }
+        }
+
+        // compute return type for method call taking into account typecast of return
+        // value
+        if (methodCallExpr.getParentNode().isPresent()
+                && methodCallExpr.getParentNode().get() instanceof CastExpr) {
+            returnType = resolveType(((CastExpr) methodCallExpr.getParentNode().get()).getType());
+        } else {
+            returnType = resolveExpression(methodCallExpr);
+        }
 
-            // resolve callee and get signature
-            String calleeSignature = "";
+        // resolve callee once, and get its signature and access qualifier
+        String calleeSignature = "";
+        AccessSpecifier accessSpecifier = AccessSpecifier.NONE;
+        ResolvedMethodDeclaration resolvedMethodDeclaration = null;
+        try {
+            resolvedMethodDeclaration = methodCallExpr.resolve();
+        } catch (Throwable exception) {
+            Log.debug("Could not resolve method call: " + methodCallExpr + ": " + exception.getMessage());
+        }
+        if (resolvedMethodDeclaration != null) {
             try {
-                calleeSignature = getTypeErasureSignature(methodCallExpr.resolve());
+                calleeSignature = getTypeErasureSignature(resolvedMethodDeclaration);
             } catch (Throwable exception) {
-                Log.debug("Could not resolve method call: " + methodCallExpr + ": " + exception.getMessage());
+                Log.debug("Could not compute signature for method call: " + methodCallExpr + ": "
+                        + exception.getMessage());
             }
-
-            // Resolve access qualifier
-            AccessSpecifier accessSpecifier = AccessSpecifier.NONE;
             try {
-                ResolvedMethodDeclaration resolvedMethodDeclaration = methodCallExpr.resolve();
                 accessSpecifier = resolvedMethodDeclaration.accessSpecifier();
             } catch (Throwable exception) {
                 Log.debug("Could not resolve access specifier for method call: " + methodCallExpr + ": "
                         + exception.getMessage());
             }
-            // resolve arguments of the method call to types
-            List<String> argumentTypes = methodCallExpr.getArguments().stream().map(SymbolTable::resolveExpression)
-                    .collect(Collectors.toList());
-            // Get argument string from the callsite
-            List<String> listOfArgumentStrings = methodCallExpr.getArguments().stream().map(Expression::toString)
-                    .collect(Collectors.toList());
-            // Determine if this call site is potentially a CRUD operation.
-            CRUDOperation crudOperation = null;
-            Optional<CRUDOperationType> crudOperationType = findCRUDOperation(declaringType,
-                    methodCallExpr.getNameAsString());
-            if (crudOperationType.isPresent()) {
-                // We found a CRUD operation, so we need to populate the details of the call
-                // site this CRUD operation.
-                int lineNumber = methodCallExpr.getRange().isPresent() ? methodCallExpr.getRange().get().begin.line
-                        : -1;
-                crudOperation = new CRUDOperation();
-                crudOperation.setLineNumber(lineNumber);
-                crudOperation.setOperationType(crudOperationType.get());
-            }
-            // Determine if this call site is potentially a CRUD query.
-            CRUDQuery crudQuery = null;
-            Optional<CRUDQueryType> crudQueryType = findCRUDQuery(declaringType, methodCallExpr.getNameAsString(),
-                    Optional.of(listOfArgumentStrings));
-            if (crudQueryType.isPresent()) {
-                // We found a CRUD query, so we need to populate the details of the call site
-                // this CRUD query.
-                int lineNumber = methodCallExpr.getRange().isPresent() ? methodCallExpr.getRange().get().begin.line
-                        : -1;
-                crudQuery = new CRUDQuery();
-                crudQuery.setLineNumber(lineNumber);
-                crudQuery.setQueryType(crudQueryType.get());
-                crudQuery.setQueryArguments(listOfArgumentStrings);
-            }
-            // add a new call site object
-
-
-            callSites.add(createCallSite(methodCallExpr, methodCallExpr.getNameAsString(), receiverName, declaringType,
-                    argumentTypes, listOfArgumentStrings, returnType, calleeSignature, isStaticCall, false, crudOperation, crudQuery,
-                    accessSpecifier));
         }
+        // resolve arguments of the method call to types
+        List<String> argumentTypes = methodCallExpr.getArguments().stream().map(SymbolTable::resolveExpression)
+                .collect(Collectors.toList());
+        // Get argument string from the callsite
+        List<String> listOfArgumentStrings = methodCallExpr.getArguments().stream().map(Expression::toString)
+                .collect(Collectors.toList());
+        // Determine if this call site is potentially a CRUD operation.
+        CRUDOperation crudOperation = null;
+        Optional<CRUDOperationType> crudOperationType = findCRUDOperation(declaringType,
+                methodCallExpr.getNameAsString());
+        if (crudOperationType.isPresent()) {
+            // We found a CRUD operation, so we need to populate the details of the call
+            // site this CRUD operation.
+            int lineNumber = methodCallExpr.getRange().isPresent() ? methodCallExpr.getRange().get().begin.line
+                    : -1;
+            crudOperation = new CRUDOperation();
+            crudOperation.setLineNumber(lineNumber);
+            crudOperation.setOperationType(crudOperationType.get());
+        }
+        // Determine if this call site is potentially a CRUD query.
+        CRUDQuery crudQuery = null;
+        Optional<CRUDQueryType> crudQueryType = findCRUDQuery(declaringType, methodCallExpr.getNameAsString(),
+                Optional.of(listOfArgumentStrings));
+        if (crudQueryType.isPresent()) {
+            // We found a CRUD query, so we need to populate the details of the call site
+            // this CRUD query.
+            int lineNumber = methodCallExpr.getRange().isPresent() ? methodCallExpr.getRange().get().begin.line
+                    : -1;
+            crudQuery = new CRUDQuery();
+            crudQuery.setLineNumber(lineNumber);
+            crudQuery.setQueryType(crudQueryType.get());
+            crudQuery.setQueryArguments(listOfArgumentStrings);
+        }
+        return createCallSite(methodCallExpr, methodCallExpr.getNameAsString(), receiverName, declaringType,
+                argumentTypes, listOfArgumentStrings, returnType, calleeSignature, isStaticCall, false, crudOperation,
+                crudQuery, accessSpecifier);
+    }
 
-        for (ObjectCreationExpr objectCreationExpr : callableBody.get().findAll(ObjectCreationExpr.class)) {
-            // resolve declaring type for called method
-            String instantiatedType = resolveType(objectCreationExpr.getType());
-
-            // resolve arguments of the constructor call to types
-            List<String> argumentTypes = objectCreationExpr.getArguments().stream().map(SymbolTable::resolveExpression)
-                    .collect(Collectors.toList());
+    /**
+     * Returns information about the given constructor call site.
+     *
+     * @param objectCreationExpr object creation to compute call-site information for
+     * @return call site
+     */
+    private static CallSite createConstructorCallSite(ObjectCreationExpr objectCreationExpr) {
+        // resolve declaring type for called method
+        String instantiatedType = resolveType(objectCreationExpr.getType());
 
-            // get argument expressions for constructor call
-            List<String> argumentExpressions = objectCreationExpr.getArguments().stream().map(Expression::toString)
-                    .collect(Collectors.toList());
+        // resolve arguments of the constructor call to types
+        List<String> argumentTypes = objectCreationExpr.getArguments().stream().map(SymbolTable::resolveExpression)
+                .collect(Collectors.toList());
 
-            // resolve callee and get signature
-            String calleeSignature = "";
-            try {
-                calleeSignature = getTypeErasureSignature(objectCreationExpr.resolve());
-            } catch (Throwable exception) {
-                Log.debug("Could not resolve constructor call: " + objectCreationExpr + ": " + exception.getMessage());
-            }
+        // get argument expressions for constructor call
+        List<String> argumentExpressions = objectCreationExpr.getArguments().stream().map(Expression::toString)
+                .collect(Collectors.toList());
 
-            // add a new call site object
-            callSites
-                    .add(createCallSite(objectCreationExpr, "<init>",
-                            objectCreationExpr.getScope().isPresent() ? objectCreationExpr.getScope().get().toString()
-                                    : "",
-                            instantiatedType, argumentTypes, argumentExpressions, instantiatedType, calleeSignature, false, true, null, null,
-                            AccessSpecifier.NONE));
+        // resolve callee and get signature
+        String calleeSignature = "";
+        try {
+            calleeSignature = getTypeErasureSignature(objectCreationExpr.resolve());
+        } catch (Throwable exception) {
+            Log.debug("Could not resolve constructor call: " + objectCreationExpr + ": " + exception.getMessage());
         }
 
-        return callSites;
+        return createCallSite(objectCreationExpr, "<init>",
+                objectCreationExpr.getScope().isPresent() ? objectCreationExpr.getScope().get().toString() : "",
+                instantiatedType, argumentTypes, argumentExpressions, instantiatedType, calleeSignature, false, true,
+                null, null, AccessSpecifier.NONE);
     }
 
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
@@ -1085,20 +1160,18 @@ public class SymbolTable {
      * @return Resolved type name or empty string if type resolution fails
      */
     private static String resolveExpression(Expression expression) {
-        // perform expression resolution if resolution of this expression did not fail
-        // previously
-        if (!unresolvedExpressions.contains(expression.toString())) {
+        return resolutionCache.resolve(expression, expr -> {
             try {
-                ResolvedType resolvedType = javaSymbolSolver.calculateType(expression);
+                ResolvedType resolvedType = javaSymbolSolver.get().calculateType(expr);
                 if (resolvedType.isReferenceType() || resolvedType.isUnionType()) {
                     return resolvedType.describe();
                 }
             } catch (Throwable exception) {
-                Log.debug("Could not resolve expression: " + expression + ": " + exception.getMessage());
-                unresolvedExpressions.add(expression.toString());
+                Log.debug("Could not resolve expression: " + expr + ": " + exception.getMessage());
+                resolutionCache.recordFailure();
             }
-        }
-        return "";
+            return "";
+        });
     }
 
     /**
@@ -1110,16 +1183,94 @@ public class SymbolTable {
      * @return Resolved (qualified) type name
      */
     private static String resolveType(Type type) {
-        // perform type resolution if resolution of this type did not fail previously
-        if (!unresolvedTypes.contains(type.asString())) {
+        return resolutionCache.resolve(type, typ -> {
             try {
-                return type.resolve().describe();
+                return typ.resolve().describe();
             } catch (Throwable e) {
-                Log.warn("Could not resolve type: " + type.asString() + ": " + e.getMessage());
-                unresolvedTypes.add(type.asString());
+                Log.warn("Could not resolve type: " + typ.asString() + ": " + e.getMessage());
+                resolutionCache.recordFailure();
             }
+            return typ.asString();
+        });
+    }
+
+    /**
+     * Collects the source roots of the project with the given strategy, which also sets up its symbol solver. With
+     * {@code --dependency-mode classpath}, the dependency jars are not in the project directory, where the strategy
+     * looks for jars; the symbol solver is then replaced by one that also resolves types from the jars of the resolved
+     * dependency classpath.
+     *
+     * @param strategy        symbol solver collection strategy
+     * @param projectRootPath root path of the project
+     * @return source roots of the project
+     */
+    private static ProjectRoot collectProject(SymbolSolverCollectionStrategy strategy, Path projectRootPath) {
+        ProjectRoot projectRoot = strategy.collect(projectRootPath);
+        if (dependencyClasspath == null) {
+            return projectRoot;
+        }
+        ParserConfiguration parserConfiguration = strategy.getParserConfiguration();
+        CombinedTypeSolver typeSolver = new CombinedTypeSolver(new ReflectionTypeSolver(false));
+        for (SourceRoot sourceRoot : projectRoot.getSourceRoots()) {
+            typeSolver.add(new JavaParserTypeSolver(sourceRoot.getRoot(), parserConfiguration));
+        }
+        createJarTypeSolvers(projectRootPath).forEach(typeSolver::add);
+        parserConfiguration.setSymbolResolver(new JavaSymbolSolver(typeSolver));
+        return projectRoot;
+    }
+
+    /**
+     * Creates a type solver for every jar in the project directory and, with {@code --dependency-mode classpath}, on
+     * the resolved dependency classpath, skipping unreadable jars.
+     */
+    private static List<TypeSolver> createJarTypeSolvers(Path projectRootPath) {
+        Set<Path> jars = new LinkedHashSet<>();
+        try {
+            jars.addAll(ProjectDirectoryScanner.jarFilesStream(projectRootPath.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (dependencyClasspath != null) {
+            jars.addAll(dependencyClasspath);
+        }
+        List<TypeSolver> jarTypeSolvers = new ArrayList<>();
+        for (Path jar : jars) {
+            try {
+                jarTypeSolvers.add(new JarTypeSolver(jar));
+            } catch (IOException e) {
+                Log.warn("Skipping unreadable jar " + jar + ": " + e.getMessage());
+            }
+        }
+        return jarTypeSolvers;
+    }
+
+    /**
+     * View of a type solver shared by the workers of the parallel extraction. A type solver has a single parent, the
+     * combined type solver it was added to, so every worker adds a view of the shared type solver to its own combined
+     * type solver instead.
+     */
+    private static final class SharedTypeSolver implements TypeSolver {
+        private final TypeSolver typeSolver;
+        private TypeSolver parent;
+
+        private SharedTypeSolver(TypeSolver typeSolver) {
+            this.typeSolver = typeSolver;
+        }
+
+        @Override
+        public TypeSolver getParent() {
+            return parent;
+        }
+
+        @Override
+        public void setParent(TypeSolver parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+            return typeSolver.tryToSolveType(name);
         }
-        return type.asString();
     }
 
     /**
@@ -1149,27 +1300,325 @@ public class SymbolTable {
 
     public static Pair<Map<String, JavaCompilationUnit>, Map<String, List<Problem>>> extractAll(Path projectRootPath)
             throws IOException {
-        SymbolSolverCollectionStrategy symbolSolverCollectionStrategy = new SymbolSolverCollectionStrategy();
-        ProjectRoot projectRoot = symbolSolverCollectionStrategy.collect(projectRootPath);
-        javaSymbolSolver = (JavaSymbolSolver) symbolSolverCollectionStrategy.getParserConfiguration()
-                .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_21).getSymbolResolver().get();
+        return extractAll(projectRootPath, 1);
+    }
+
+    /**
+     * Same as {@link #extractAll(Path)}, but parses and processes the source files on the given number of worker
+     * threads. Each worker owns its own parser configuration and symbol solver, files are scheduled largest first,
+     * and the returned symbol table has exactly the same entry order as a sequential run.
+     *
+     * @param projectRootPath root path of the project to be analyzed
+     * @param jobs number of worker threads; values below 2 run sequentially
+     * @return Pair of extracted symbol table map and parse problems map for
+     *         project
+     * @throws IOException
+     */
+    public static Pair<Map<String, JavaCompilationUnit>, Map<String, List<Problem>>> extractAll(Path projectRootPath,
+            int jobs) throws IOException {
         Map<String, JavaCompilationUnit> symbolTable = new LinkedHashMap<>();
-        Map<String, List<Problem>> parseProblems = new HashMap<>();
+        Map<String, List<Problem>> parseProblems = extractAll(projectRootPath, jobs, null, true, symbolTable::put);
+        return Pair.of(symbolTable, parseProblems);
+    }
+
+    /**
+     * Consumer of the compilation units extracted by
+     * {@link #extractAll(Path, int, SymbolTableCache, boolean, CompilationUnitConsumer)}.
+     */
+    public interface CompilationUnitConsumer {
+        /**
+         * Accepts an extracted compilation unit.
+         *
+         * @param filePath symbol table key of the compilation unit (its file path)
+         * @param compilationUnit extracted compilation unit
+         * @throws IOException if the compilation unit cannot be consumed
+         */
+        void accept(String filePath, JavaCompilationUnit compilationUnit) throws IOException;
+    }
+
+    /**
+     * Same as {@link #extractAll(Path, int)}, but instead of collecting the compilation units into a symbol table,
+     * hands each of them to the given consumer as soon as it has been processed, in symbol table order. This lets
+     * callers stream the symbol table without holding all of it in memory. If a cache is given, source files that
+     * are unchanged since they were cached are not parsed at all; their cached compilation units are used instead.
+     *
+     * @param projectRootPath root path of the project to be analyzed
+     * @param jobs number of worker threads; values below 2 run sequentially
+     * @param cache persistent cache of compilation units, or null
+     * @param indexCallables whether to register the declared callables in {@link #declaredMethodsAndConstructors};
+     *                       callers that do not read the index, e.g., to stream the symbol table, leave them out so
+     *                       that they are not kept in memory
+     * @param compilationUnitConsumer consumer of the extracted compilation units
+     * @return parse problems map for project
+     * @throws IOException
+     */
+    public static Map<String, List<Problem>> extractAll(Path projectRootPath, int jobs, SymbolTableCache cache,
+            boolean indexCallables, CompilationUnitConsumer compilationUnitConsumer) throws IOException {
+        SymbolSolverCollectionStrategy symbolSolverCollectionStrategy = new SymbolSolverCollectionStrategy();
+        ProjectRoot projectRoot = collectProject(symbolSolverCollectionStrategy, projectRootPath);
+        Map<String, List<Problem>> parseProblems;
+        if (jobs > 1) {
+            parseProblems = extractAllInParallel(projectRootPath, projectRoot, jobs, cache, indexCallables,
+                    compilationUnitConsumer);
+        } else {
+            ParserConfiguration parserConfiguration = symbolSolverCollectionStrategy.getParserConfiguration()
+                    .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_21);
+            javaSymbolSolver.set((JavaSymbolSolver) parserConfiguration.getSymbolResolver().get());
+            JavaParser javaParser = new JavaParser(parserConfiguration);
+            parseProblems = new HashMap<>();
+            for (SourceRoot sourceRoot : projectRoot.getSourceRoots()) {
+                if (excludeSourceRoot(sourceRoot.getRoot())) {
+                    continue;
+                }
+                // Parse one file at a time, in the order SourceRoot#tryToParse() would, so that unchanged files can
+                // be skipped and parsed files need not be kept around
+                for (Path sourceFile : listSourceFiles(sourceRoot.getRoot())) {
+                    Pair<JavaCompilationUnit, List<Problem>> result = extractSourceFile(javaParser, sourceFile, cache);
+                    if (result.getLeft() != null) {
+                        if (indexCallables) {
+                            registerCallables(result.getLeft());
+                        }
+                        compilationUnitConsumer.accept(sourceFile.toString(), result.getLeft());
+                    } else {
+                        parseProblems.put(sourceRoot.getRoot().toString(), result.getRight());
+                    }
+                }
+            }
+            Log.info("Symbol resolution cache: " + resolutionCache + ".");
+        }
+        if (cache != null) {
+            cache.save();
+            Log.info("Symbol table cache: " + cache + ".");
+        }
+        return parseProblems;
+    }
+
+    /**
+     * Extracts the compilation unit of the given source file, or takes it from the cache if the file is unchanged
+     * since it was cached.
+     *
+     * @return Pair of the compilation unit (null if the file could not be parsed) and the parse problems
+     */
+    private static Pair<JavaCompilationUnit, List<Problem>> extractSourceFile(JavaParser javaParser, Path sourceFile,
+            SymbolTableCache cache) throws IOException {
+        JavaCompilationUnit cachedCompilationUnit = getCachedCompilationUnit(sourceFile, cache);
+        if (cachedCompilationUnit != null) {
+            return Pair.of(cachedCompilationUnit, null);
+        }
+        return extractSourceText(javaParser, sourceFile,
+                SourceText.map(sourceFile, javaParser.getParserConfiguration().getCharacterEncoding()), cache);
+    }
+
+    /**
+     * Registers the callables declared in the given compilation unit in {@link #declaredMethodsAndConstructors}.
+     */
+    private static void registerCallables(JavaCompilationUnit compilationUnit) {
+        for (Map.Entry<String, com.ibm.cldk.entities.Type> type : compilationUnit.getTypeDeclarations().entrySet()) {
+            for (Map.Entry<String, Callable> callable : type.getValue().getCallableDeclarations().entrySet()) {
+                declaredMethodsAndConstructors.put(type.getKey(), callable.getKey(), callable.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the cached compilation unit of the given source file, and records its entry point classes as processing
+     * the compilation unit would have.
+     *
+     * @return cached compilation unit, or null if there is no cache or the file changed since it was cached
+     */
+    private static JavaCompilationUnit getCachedCompilationUnit(Path sourceFile, SymbolTableCache cache)
+            throws IOException {
+        JavaCompilationUnit cachedCompilationUnit = cache != null ? cache.get(sourceFile) : null;
+        if (cachedCompilationUnit != null) {
+            for (Map.Entry<String, com.ibm.cldk.entities.Type> type : cachedCompilationUnit.getTypeDeclarations()
+                    .entrySet()) {
+                if (type.getValue().isEntrypointClass()) {
+                    entrypointClasses.add(type.getKey());
+                }
+            }
+        }
+        return cachedCompilationUnit;
+    }
+
+    /**
+     * Parses and processes the given text of the given source file, parsing it the way
+     * {@link JavaParser#parse(Path)} parses the file, and caches the resulting compilation unit.
+     *
+     * @return Pair of the compilation unit (null if the file could not be parsed) and the parse problems
+     */
+    private static Pair<JavaCompilationUnit, List<Problem>> extractSourceText(JavaParser javaParser, Path sourceFile,
+            SourceText sourceText, SymbolTableCache cache) throws IOException {
+        Charset encoding = javaParser.getParserConfiguration().getCharacterEncoding();
+        ParseResult<CompilationUnit> parseResult = javaParser.parse(ParseStart.COMPILATION_UNIT,
+                Providers.provider(sourceText.openStream(), encoding));
+        if (!parseResult.isSuccessful()) {
+            return Pair.of(null, parseResult.getProblems());
+        }
+        CompilationUnit compilationUnit = setupCompilationUnit(parseResult.getResult().get());
+        compilationUnit.setStorage(sourceFile, encoding);
+        JavaCompilationUnit javaCompilationUnit = processCompilationUnit(compilationUnit,
+                lexicalPreservingCode || !projection.includes(FactProjection.CODE) ? null : sourceText);
+        if (cache != null) {
+            cache.put(sourceFile, javaCompilationUnit);
+        }
+        return Pair.of(javaCompilationUnit, null);
+    }
+
+    /**
+     * Extracts the symbol table in a pipeline of three stages: a reader thread maps the source files in symbol table
+     * order and loads them into memory (or takes their compilation units from the cache), the given number of
+     * workers parse and process them, and the calling thread hands the compilation units over to the consumer in
+     * symbol table order. At most {@link #READ_AHEAD_PER_WORKER} files per worker are between the reader and the
+     * consumer at any time, so the number of ASTs and pending compilation units in memory depends on the number of
+     * workers, not on the number of files.
+     */
+    private static Map<String, List<Problem>> extractAllInParallel(Path projectRootPath, ProjectRoot projectRoot,
+            int jobs, SymbolTableCache cache, boolean indexCallables, CompilationUnitConsumer compilationUnitConsumer)
+            throws IOException {
+        List<Path> sourceFiles = new ArrayList<>();
+        List<Path> sourceFileRoots = new ArrayList<>();
         for (SourceRoot sourceRoot : projectRoot.getSourceRoots()) {
             if (excludeSourceRoot(sourceRoot.getRoot())) {
                 continue;
             }
-            for (ParseResult<CompilationUnit> parseResult : sourceRoot.tryToParse()) {
-                if (parseResult.isSuccessful()) {
-                    CompilationUnit compilationUnit = LexicalPreservingPrinter.setup(parseResult.getResult().get());
-                    symbolTable.put(compilationUnit.getStorage().get().getPath().toString(),
-                            processCompilationUnit(compilationUnit));
+            for (Path sourceFile : listSourceFiles(sourceRoot.getRoot())) {
+                sourceFiles.add(sourceFile);
+                sourceFileRoots.add(sourceRoot.getRoot());
+            }
+        }
+        Log.info("Extracting symbol table for " + sourceFiles.size() + " files using " + jobs + " workers.");
+
+        // The reflection and jar type solvers only read classes, so the workers share them, together with a cache of
+        // the library types they resolve; every worker thread gets its own parser configuration, symbol solver and
+        // source type solvers, which parse and cache source files
+        ReflectionTypeSolver reflectionTypeSolver = new ReflectionTypeSolver(false);
+        List<TypeSolver> libraryTypeSolvers = new ArrayList<>();
+        libraryTypeSolvers.add(reflectionTypeSolver);
+        libraryTypeSolvers.addAll(createJarTypeSolvers(projectRootPath));
+        CombinedTypeSolver libraryTypeSolver = new CombinedTypeSolver(
+                CombinedTypeSolver.ExceptionHandlers.IGNORE_NONE, libraryTypeSolvers,
+                GuavaCache.create(CacheBuilder.newBuilder().softValues().build()));
+        ThreadLocal<ParserConfiguration> workerConfiguration = ThreadLocal.withInitial(() -> {
+            ParserConfiguration parserConfiguration = new ParserConfiguration()
+                    .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_21);
+            CombinedTypeSolver typeSolver = new CombinedTypeSolver(new SharedTypeSolver(reflectionTypeSolver));
+            for (SourceRoot sourceRoot : projectRoot.getSourceRoots()) {
+                typeSolver.add(new JavaParserTypeSolver(sourceRoot.getRoot(), parserConfiguration));
+            }
+            typeSolver.add(new SharedTypeSolver(libraryTypeSolver));
+            return parserConfiguration.setSymbolResolver(new JavaSymbolSolver(typeSolver));
+        });
+        List<CompletableFuture<Pair<JavaCompilationUnit, List<Problem>>>> results = new ArrayList<>();
+        for (int i = 0; i < sourceFiles.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        Semaphore window = new Semaphore(READ_AHEAD_PER_WORKER * jobs);
+        Charset encoding = new ParserConfiguration().getCharacterEncoding();
+        Map<String, List<Problem>> parseProblems = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < sourceFiles.size(); i++) {
+                CompletableFuture<Pair<JavaCompilationUnit, List<Problem>>> result = results.get(i);
+                Path sourceFile = sourceFiles.get(i);
+                try {
+                    window.acquire();
+                    JavaCompilationUnit cachedCompilationUnit = getCachedCompilationUnit(sourceFile, cache);
+                    if (cachedCompilationUnit != null) {
+                        result.complete(Pair.of(cachedCompilationUnit, null));
+                        continue;
+                    }
+                    SourceText sourceText = SourceText.map(sourceFile, encoding).load();
+                    executor.execute(() -> {
+                        try {
+                            ParserConfiguration parserConfiguration = workerConfiguration.get();
+                            javaSymbolSolver.set((JavaSymbolSolver) parserConfiguration.getSymbolResolver().get());
+                            result.complete(extractSourceText(new JavaParser(parserConfiguration), sourceFile,
+                                    sourceText, cache));
+                        } catch (Throwable t) {
+                            result.completeExceptionally(t);
+                        }
+                    });
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                    return;
+                }
+            }
+        }, "source-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            // Hand the results over in the sequential order as soon as they are available
+            for (int i = 0; i < results.size(); i++) {
+                Pair<JavaCompilationUnit, List<Problem>> result = results.get(i).get();
+                results.set(i, null);
+                window.release();
+                if (result.getLeft() != null) {
+                    if (indexCallables) {
+                        registerCallables(result.getLeft());
+                    }
+                    compilationUnitConsumer.accept(sourceFiles.get(i).toString(), result.getLeft());
                 } else {
-                    parseProblems.put(sourceRoot.getRoot().toString(), parseResult.getProblems());
+                    parseProblems.put(sourceFileRoots.get(i).toString(), result.getRight());
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during parallel symbol table extraction", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            reader.interrupt();
+            executor.shutdownNow();
         }
-        return Pair.of(symbolTable, parseProblems);
+        Log.info("Symbol resolution cache: " + resolutionCache + ".");
+        return parseProblems;
+    }
+
+    private static final Pattern JAVA_IDENTIFIER = Pattern
+            .compile("\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*");
+
+    /**
+     * Lists the Java source files under the given source root in the same order in which
+     * {@link SourceRoot#tryToParse()} returns their parse results. SourceRoot walks the tree skipping directories
+     * that cannot be packages and returns the values of its ConcurrentHashMap cache keyed by relative path, so the
+     * same walk and the same map are replayed here.
+     *
+     * @param root source root to list files for
+     * @return absolute paths of the Java source files
+     * @throws IOException
+     */
+    private static List<Path> listSourceFiles(Path root) throws IOException {
+        Path normalizedRoot = root.normalize();
+        Map<Path, Path> sourceFiles = new ConcurrentHashMap<>();
+        Files.walkFileTree(normalizedRoot, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isDirectory() && file.toString().endsWith(".java")) {
+                    Path relativePath = normalizedRoot.relativize(file);
+                    sourceFiles.putIfAbsent(relativePath, normalizedRoot.resolve(relativePath));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!normalizedRoot.equals(dir) && (Files.isHidden(dir)
+                        || !JAVA_IDENTIFIER.matcher(dir.getFileName().toString()).matches())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return new ArrayList<>(sourceFiles.values());
     }
 
     public static Pair<Map<String, JavaCompilationUnit>, Map<String, List<Problem>>> extractSingle(String code)
@@ -1187,9 +1636,12 @@ public class SymbolTable {
         JavaParser javaParser = new JavaParser(parserConfiguration);
         ParseResult<CompilationUnit> parseResult = javaParser.parse(code);
         if (parseResult.isSuccessful()) {
-            CompilationUnit compilationUnit = LexicalPreservingPrinter.setup(parseResult.getResult().get());
+            CompilationUnit compilationUnit = setupCompilationUnit(parseResult.getResult().get());
             Log.debug("Successfully parsed code. Now processing compilation unit");
-            symbolTable.put("<pseudo-path>", processCompilationUnit(compilationUnit));
+            JavaCompilationUnit javaCompilationUnit = processCompilationUnit(compilationUnit,
+                    lexicalPreservingCode ? null : SourceText.of(code));
+            registerCallables(javaCompilationUnit);
+            symbolTable.put("<pseudo-path>", javaCompilationUnit);
         } else {
             Log.error(parseResult.getProblems().toString());
             parseProblems.put("code", parseResult.getProblems());
@@ -1211,13 +1663,13 @@ public class SymbolTable {
 
         // create symbol solver and parser configuration
         SymbolSolverCollectionStrategy symbolSolverCollectionStrategy = new SymbolSolverCollectionStrategy();
-        ProjectRoot projectRoot = symbolSolverCollectionStrategy.collect(projectRootPath);
-        javaSymbolSolver = (JavaSymbolSolver) symbolSolverCollectionStrategy.getParserConfiguration()
-                .getSymbolResolver().get();
+        ProjectRoot projectRoot = collectProject(symbolSolverCollectionStrategy, projectRootPath);
+        javaSymbolSolver.set((JavaSymbolSolver) symbolSolverCollectionStrategy.getParserConfiguration()
+                .getSymbolResolver().get());
         Log.info("Setting parser language level to JAVA_21");
         ParserConfiguration parserConfiguration = new ParserConfiguration()
                 .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_21);
-        parserConfiguration.setSymbolResolver(javaSymbolSolver);
+        parserConfiguration.setSymbolResolver(javaSymbolSolver.get());
 
         // create java parser with the configuration
         JavaParser javaParser = new JavaParser(parserConfiguration);
@@ -1229,15 +1681,18 @@ public class SymbolTable {
         for (Path javaFilePath : javaFilePaths) {
             ParseResult<CompilationUnit> parseResult = javaParser.parse(javaFilePath);
             if (parseResult.isSuccessful()) {
-                CompilationUnit compilationUnit = LexicalPreservingPrinter.setup(parseResult.getResult().get());
+                CompilationUnit compilationUnit = setupCompilationUnit(parseResult.getResult().get());
                 System.out.println("Successfully parsed file: " + javaFilePath.toString());
-                symbolTable.put(compilationUnit.getStorage().get().getPath().toString(),
-                        processCompilationUnit(compilationUnit));
+                JavaCompilationUnit javaCompilationUnit = processCompilationUnit(compilationUnit,
+                        openSourceText(javaFilePath, javaParser));
+                registerCallables(javaCompilationUnit);
+                symbolTable.put(compilationUnit.getStorage().get().getPath().toString(), javaCompilationUnit);
             } else {
                 Log.error(parseResult.getProblems().toString());
                 parseProblems.put(javaFilePath.toString(), parseResult.getProblems());
             }
         }
+        Log.info("Symbol resolution cache: " + resolutionCache + ".");
         return Pair.of(symbolTable, parseProblems);
     }
 
@@ -14,10 +14,15 @@ limitations under the License.
 package com.ibm.cldk;
 
 import static com.ibm.cldk.CodeAnalyzer.analysisLevel;
+import static com.ibm.cldk.CodeAnalyzer.callGraphAlgorithm;
+import static com.ibm.cldk.CodeAnalyzer.callGraphMaxHeap;
+import static com.ibm.cldk.CodeAnalyzer.callGraphTimeout;
 import static com.ibm.cldk.utils.AnalysisUtils.*;
 
 import com.ibm.cldk.entities.*;
 import com.ibm.cldk.utils.AnalysisUtils;
+import com.ibm.cldk.utils.CallGraphBudget;
+import com.ibm.cldk.utils.IndexedCallGraph;
 import com.ibm.cldk.utils.Log;
 import com.ibm.cldk.utils.ScopeUtils;
 import com.ibm.wala.cast.ir.ssa.AstIRFactory;
@@ -27,6 +32,7 @@ import com.ibm.wala.classLoader.JavaLanguage;
 import com.ibm.wala.classLoader.Language;
 import com.ibm.wala.ipa.callgraph.*;
 import com.ibm.wala.ipa.callgraph.AnalysisOptions.ReflectionOptions;
+import com.ibm.wala.ipa.callgraph.cha.CHACallGraph;
 import com.ibm.wala.ipa.callgraph.impl.Util;
 import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
 import com.ibm.wala.ipa.cha.ClassHierarchyException;
@@ -38,6 +44,7 @@ import com.ibm.wala.ipa.slicer.SDG;
 import com.ibm.wala.ipa.slicer.Slicer;
 import com.ibm.wala.ipa.slicer.Statement;
 import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.graph.Graph;
 import com.ibm.wala.util.graph.GraphSlicer;
@@ -46,58 +53,23 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import java.util.stream.StreamSupport;
 import org.apache.commons.io.output.NullOutputStream;
-import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.nio.json.JSONExporter;
 
-
-@Data
-abstract class Dependency {
-    public CallableVertex source;
-    public CallableVertex target;
-}
-
-@Data
-@EqualsAndHashCode(callSuper = true)
-class SDGDependency extends Dependency {
-    public String sourceKind;
-    public String destinationKind;
-    public String type;
-    public String weight;
-
-    public SDGDependency(CallableVertex source, CallableVertex target, SystemDepEdge edge) {
-        super.source = source;
-        super.target = target;
-        this.sourceKind = edge.getSourceKind();
-        this.destinationKind = edge.getDestinationKind();
-        this.type = edge.getType();
-        this.weight = String.valueOf(edge.getWeight());
-    }
-}
-
-@Data
-@EqualsAndHashCode(callSuper = true)
-class CallDependency extends Dependency {
-    public String type;
-    public String weight;
-
-    public CallDependency(CallableVertex source, CallableVertex target, AbstractGraphEdge edge) {
-        this.source = source;
-        this.target = target;
-        this.type = edge.toString();
-        this.weight = String.valueOf(edge.getWeight());
-    }
-}
-
 /**
  * The type Sdg 2 json.
  */
 public class SystemDependencyGraph {
 
+    /** Call graph algorithms, from the most precise to the cheapest */
+    public static final List<String> CALL_GRAPH_ALGORITHMS = List.of("0-1-cfa", "0-cfa", "rta", "cha");
+
+    // Type of call graph edges, as CallEdge names it
+    private static final String CALL_DEPENDENCY_TYPE = new CallEdge().toString();
+
     /**
      * Get a JGraphT graph exporter to save graph as JSON.
      *
@@ -112,16 +84,26 @@ public class SystemDependencyGraph {
     }
 
     /**
-     * Convert SDG to a formal Graph representation.
+     * Convert the call graph to an indexed graph between application callables. Every call graph node is mapped to
+     * its vertex once, and calls between the same callables are merged into one weighted edge.
      *
-     * @param callGraph
-     * @return
+     * @param callGraph the call graph
+     * @return the indexed call graph
      */
-    private static org.jgrapht.Graph<CallableVertex, AbstractGraphEdge> buildOnlyCallGraph(CallGraph callGraph) {
+    private static IndexedCallGraph buildOnlyCallGraph(CallGraph callGraph) {
 
-        org.jgrapht.Graph<CallableVertex, AbstractGraphEdge> graph = new DefaultDirectedGraph<>(
-                AbstractGraphEdge.class);
-        callGraph.getEntrypointNodes()
+        IndexedCallGraph graph = new IndexedCallGraph();
+        // Vertex id of every call graph node
+        Map<CGNode, Integer> vertexIds = new HashMap<>();
+        Function<CGNode, Integer> getVertexId = node -> vertexIds.computeIfAbsent(node,
+                n -> graph.addVertex(getCallableVertex(n.getMethod())));
+        // Calls from the entry points, followed by the calls from all other reachable application callables, as the
+        // entry points can be a subset of the application callables
+        Set<CGNode> callers = new LinkedHashSet<>(callGraph.getEntrypointNodes());
+        StreamSupport.stream(callGraph.spliterator(), false)
+                .filter(p -> AnalysisUtils.isApplicationClass(p.getMethod().getDeclaringClass()))
+                .forEach(callers::add);
+        callers
                 .forEach(p -> {
                     // Get call statements that may execute in a given method
                     Iterator<CallSiteReference> outGoingCalls = p.iterateCallSites();
@@ -129,25 +111,10 @@ public class SystemDependencyGraph {
                         callGraph.getPossibleTargets(p, n).stream()
                                 .filter(o -> AnalysisUtils.isApplicationClass(o.getMethod().getDeclaringClass()))
                                 .forEach(o -> {
-
-                                    // Add the source nodes to the graph as vertices
-                                    Map<String, String> source = Optional.ofNullable(getCallableFromSymbolTable(p.getMethod())).orElseGet(() -> createAndPutNewCallableInSymbolTable(p.getMethod()));
-                                    CallableVertex source_vertex = new CallableVertex(source);
-
-                                    // Add the target nodes to the graph as vertices
-                                    Map<String, String> target = Optional.ofNullable(getCallableFromSymbolTable(o.getMethod())).orElseGet(() -> createAndPutNewCallableInSymbolTable(o.getMethod()));
-                                    CallableVertex target_vertex = new CallableVertex(target);
-
-                                    if (!source.equals(target) && target != null) {
-                                        // Get the edge between the source and the target
-                                        graph.addVertex(source_vertex);
-                                        graph.addVertex(target_vertex);
-                                        AbstractGraphEdge cgEdge = graph.getEdge(source_vertex, target_vertex);
-                                        if (cgEdge instanceof CallEdge) {
-                                            ((CallEdge) cgEdge).incrementWeight();
-                                        } else {
-                                            graph.addEdge(source_vertex, target_vertex, new CallEdge());
-                                        }
+                                    int source = getVertexId.apply(p);
+                                    int target = getVertexId.apply(o);
+                                    if (source != target) {
+                                        graph.addCall(source, target);
                                     }
                                 });
                     });
@@ -156,6 +123,41 @@ public class SystemDependencyGraph {
         return graph;
     }
 
+    /**
+     * Convert the indexed call graph to a table of vertices and weighted edges between vertex ids, with vertices
+     * sorted by their attributes so that ids do not depend on the order of call graph nodes.
+     *
+     * @param graph the indexed call graph
+     * @return the normalized call graph
+     */
+    static NormalizedCallGraph buildNormalizedCallGraph(IndexedCallGraph graph) {
+        Comparator<Map<String, String>> vertexOrder = Comparator.<Map<String, String>, String>comparing(
+                        c -> c.get("filePath"), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(c -> c.get("typeDeclaration"), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(c -> c.get("signature"), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(c -> c.get("callableDeclaration"), Comparator.nullsFirst(Comparator.naturalOrder()));
+        Integer[] order = new Integer[graph.getVertexCount()];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = id;
+        }
+        Arrays.sort(order, Comparator.comparing(graph::getVertex, vertexOrder));
+        int[] sortedIds = new int[order.length];
+        List<CallableVertex> vertices = new ArrayList<>(order.length);
+        for (int sortedId = 0; sortedId < order.length; sortedId++) {
+            sortedIds[order[sortedId]] = sortedId;
+            vertices.add(new CallableVertex(graph.getVertex(order[sortedId])));
+        }
+
+        List<int[]> edges = new ArrayList<>(graph.getEdgeCount());
+        graph.forEachEdge((source, target, weight) -> edges.add(new int[] { sortedIds[source], sortedIds[target], weight }));
+        edges.sort(Comparator.<int[]>comparingInt(edge -> edge[0]).thenComparingInt(edge -> edge[1]));
+
+        NormalizedCallGraph normalizedCallGraph = new NormalizedCallGraph();
+        normalizedCallGraph.setVertices(vertices);
+        normalizedCallGraph.setEdges(edges);
+        return normalizedCallGraph;
+    }
+
     /**
      * Construct a System Dependency Graph from a given input.
      *
@@ -173,6 +175,56 @@ public class SystemDependencyGraph {
             String input, String dependencies, String build)
             throws IOException, ClassHierarchyException, IllegalArgumentException, CallGraphBuilderCancelException {
 
+        CallGraph callGraph = buildCallGraph(input, dependencies, build);
+
+        return buildCallDependencies(buildOnlyCallGraph(callGraph));
+    }
+
+    /**
+     * Convert the indexed call graph to a list of call edges, each with the attributes of its source and target
+     * callables.
+     *
+     * @param graph the indexed call graph
+     * @return the call edges
+     */
+    static List<Dependency> buildCallDependencies(IndexedCallGraph graph) {
+        CallableVertex[] vertices = new CallableVertex[graph.getVertexCount()];
+        for (int id = 0; id < vertices.length; id++) {
+            vertices[id] = new CallableVertex(graph.getVertex(id));
+        }
+        List<Dependency> edges = new ArrayList<>(graph.getEdgeCount());
+        graph.forEachEdge((source, target, weight) -> edges.add(
+                new CallDependency(vertices[source], vertices[target], CALL_DEPENDENCY_TYPE, weight)));
+        return edges;
+    }
+
+    /**
+     * Construct the call graph from a given input as a table of vertices and a list of edges between vertex ids.
+     * Calls between the same pair of callables are merged into one edge, weighted by the number of calls.
+     *
+     * @param input        the input
+     * @param dependencies the dependencies
+     * @param build        The build options
+     * @return the normalized call graph
+     * @throws IOException                     the io exception
+     * @throws ClassHierarchyException         the class hierarchy exception
+     * @throws IllegalArgumentException        the illegal argument exception
+     * @throws CallGraphBuilderCancelException the call graph builder cancel
+     *                                         exception
+     */
+    public static NormalizedCallGraph constructNormalized(
+            String input, String dependencies, String build)
+            throws IOException, ClassHierarchyException, IllegalArgumentException, CallGraphBuilderCancelException {
+        return buildNormalizedCallGraph(buildOnlyCallGraph(buildCallGraph(input, dependencies, build)));
+    }
+
+    /**
+     * Builds the call graph of the given input and sets the cyclomatic complexity of the callables in the symbol
+     * table.
+     */
+    private static CallGraph buildCallGraph(String input, String dependencies, String build)
+            throws IOException, ClassHierarchyException, IllegalArgumentException, CallGraphBuilderCancelException {
+
         // Initialize scope
         AnalysisScope scope = ScopeUtils.createScope(input, dependencies, build);
         IClassHierarchy cha = ClassHierarchyFactory.make(scope,
@@ -195,22 +247,38 @@ public class SystemDependencyGraph {
         // Some fu to remove WALA's console out...
         PrintStream originalOut = System.out;
         PrintStream originalErr = System.err;
-        long start_time = System.currentTimeMillis();
-        CallGraph callGraph;
-        CallGraphBuilder<InstanceKey> builder;
-        try {
-            System.setOut(new PrintStream(NullOutputStream.INSTANCE));
-            System.setErr(new PrintStream(NullOutputStream.INSTANCE));
-            builder = Util.makeRTABuilder(options, cache, cha);
-            callGraph = builder.makeCallGraph(options, null);
-        } finally {
-            System.setOut(originalOut);
-            System.setErr(originalErr);
+        CallGraph callGraph = null;
+        String algorithm = callGraphAlgorithm;
+        while (callGraph == null) {
+            long start_time = System.currentTimeMillis();
+            CallGraphBudget budget = new CallGraphBudget(callGraphTimeout, callGraphMaxHeap);
+            CallGraphBuilderCancelException canceled = null;
+            try {
+                System.setOut(new PrintStream(NullOutputStream.INSTANCE));
+                System.setErr(new PrintStream(NullOutputStream.INSTANCE));
+                callGraph = makeCallGraph(algorithm, options, cache, cha, entryPoints, budget);
+            } catch (CallGraphBuilderCancelException e) {
+                canceled = e;
+            } finally {
+                System.setOut(originalOut);
+                System.setErr(originalErr);
+            }
+            if (canceled != null) {
+                // Retry with the next cheaper algorithm
+                int next = CALL_GRAPH_ALGORITHMS.indexOf(algorithm) + 1;
+                if (next == CALL_GRAPH_ALGORITHMS.size()) {
+                    throw canceled;
+                }
+                Log.warn("Construction of the call graph with " + algorithm + " was canceled after "
+                        + Math.ceil((double) (System.currentTimeMillis() - start_time) / 1000) + " seconds: "
+                        + budget.getCancelMessage() + ". Falling back to " + CALL_GRAPH_ALGORITHMS.get(next) + ".");
+                algorithm = CALL_GRAPH_ALGORITHMS.get(next);
+            } else {
+                Log.done("Finished construction of call graph with " + algorithm + ". Took "
+                        + Math.ceil((double) (System.currentTimeMillis() - start_time) / 1000) + " seconds.");
+            }
         }
 
-        Log.done("Finished construction of call graph. Took "
-                + Math.ceil((double) (System.currentTimeMillis() - start_time) / 1000) + " seconds.");
-
         // set cyclomatic complexity for callables in the symbol table
         callGraph.forEach(cgNode -> {
             Callable callable = getCallableObjectFromSymbolTable(cgNode.getMethod()).getRight();
@@ -219,22 +287,34 @@ public class SystemDependencyGraph {
             }
         });
 
-        org.jgrapht.Graph<CallableVertex, AbstractGraphEdge> graph;
-
-        graph = buildOnlyCallGraph(callGraph);
-
-        List<Dependency> edges = graph.edgeSet().stream()
-                .map(abstractGraphEdge -> {
-                    CallableVertex source = graph.getEdgeSource(abstractGraphEdge);
-                    CallableVertex target = graph.getEdgeTarget(abstractGraphEdge);
-                    if (abstractGraphEdge instanceof CallEdge) {
-                        return new CallDependency(source, target, abstractGraphEdge);
-                    } else {
-                        return new SDGDependency(source, target, (SystemDepEdge) abstractGraphEdge);
-                    }
-                })
-                .collect(Collectors.toList());
+        return callGraph;
+    }
 
-        return edges;
+    /**
+     * Builds the call graph with the given algorithm, canceling the construction when the budget runs out. The class
+     * hierarchy analysis does not propagate and is not bounded by the budget.
+     */
+    private static CallGraph makeCallGraph(String algorithm, AnalysisOptions options, IAnalysisCacheView cache,
+            IClassHierarchy cha, Iterable<Entrypoint> entryPoints, CallGraphBudget budget) throws CallGraphBuilderCancelException {
+        CallGraphBuilder<InstanceKey> builder;
+        switch (algorithm) {
+            case "cha":
+                CHACallGraph chaCallGraph = new CHACallGraph(cha, true);
+                try {
+                    chaCallGraph.init(entryPoints);
+                } catch (CancelException e) {
+                    throw CallGraphBuilderCancelException.createCallGraphBuilderCancelException(e, null, null);
+                }
+                return chaCallGraph;
+            case "0-1-cfa":
+                builder = Util.makeZeroOneCFABuilder(Language.JAVA, options, cache, cha);
+                break;
+            case "0-cfa":
+                builder = Util.makeZeroCFABuilder(Language.JAVA, options, cache, cha);
+                break;
+            default:
+                builder = Util.makeRTABuilder(options, cache, cha);
+        }
+        return builder.makeCallGraph(options, budget);
     }
 }
@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -85,4 +86,21 @@ public class CallSite {
 
     /** Ending column number of the call site in the source file */
     private int endColumn;
+
+    // Recurring values are pooled, see StringPool
+    public void setMethodName(String methodName) {
+        this.methodName = StringPool.intern(methodName);
+    }
+
+    public void setReceiverType(String receiverType) {
+        this.receiverType = StringPool.intern(receiverType);
+    }
+
+    public void setArgumentTypes(List<String> argumentTypes) {
+        this.argumentTypes = StringPool.intern(argumentTypes);
+    }
+
+    public void setReturnType(String returnType) {
+        this.returnType = StringPool.intern(returnType);
+    }
 }
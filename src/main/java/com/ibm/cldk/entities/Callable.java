@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
@@ -104,4 +105,33 @@ public class Callable {
 
     /** Indicates whether the callable entity is an entry point. */
     private boolean isEntrypoint = false;
+
+    // Recurring values are pooled, see StringPool
+    public void setFilePath(String filePath) {
+        this.filePath = StringPool.intern(filePath);
+    }
+
+    public void setAnnotations(List<String> annotations) {
+        this.annotations = StringPool.intern(annotations);
+    }
+
+    public void setModifiers(List<String> modifiers) {
+        this.modifiers = StringPool.intern(modifiers);
+    }
+
+    public void setThrownExceptions(List<String> thrownExceptions) {
+        this.thrownExceptions = StringPool.intern(thrownExceptions);
+    }
+
+    public void setReturnType(String returnType) {
+        this.returnType = StringPool.intern(returnType);
+    }
+
+    public void setReferencedTypes(List<String> referencedTypes) {
+        this.referencedTypes = StringPool.intern(referencedTypes);
+    }
+
+    public void setAccessedFields(List<String> accessedFields) {
+        this.accessedFields = StringPool.intern(accessedFields);
+    }
 }
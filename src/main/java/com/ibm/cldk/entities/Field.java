@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.List;
 import lombok.Data;
 
@@ -8,9 +9,26 @@ public class Field {
     private Comment comment;
     private String name;
     private String type;
-    private Integer startLine;
-    private Integer endLine;
+    private int startLine;
+    private int endLine;
     private List<String> variables;
     private List<String> modifiers;
     private List<String> annotations;
+
+    // Recurring values are pooled, see StringPool
+    public void setType(String type) {
+        this.type = StringPool.intern(type);
+    }
+
+    public void setModifiers(List<String> modifiers) {
+        this.modifiers = StringPool.intern(modifiers);
+    }
+
+    public void setAnnotations(List<String> annotations) {
+        this.annotations = StringPool.intern(annotations);
+    }
+
+    public void setVariables(List<String> variables) {
+        this.variables = StringPool.intern(variables);
+    }
 }
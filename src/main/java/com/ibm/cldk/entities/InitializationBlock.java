@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.List;
 import java.util.stream.Collector;
 import lombok.Data;
@@ -20,4 +21,24 @@ public class InitializationBlock {
     private List<VariableDeclaration> variableDeclarations;
     private int cyclomaticComplexity;
 
+    // Recurring values are pooled, see StringPool
+    public void setFilePath(String filePath) {
+        this.filePath = StringPool.intern(filePath);
+    }
+
+    public void setAnnotations(List<String> annotations) {
+        this.annotations = StringPool.intern(annotations);
+    }
+
+    public void setThrownExceptions(List<String> thrownExceptions) {
+        this.thrownExceptions = StringPool.intern(thrownExceptions);
+    }
+
+    public void setReferencedTypes(List<String> referencedTypes) {
+        this.referencedTypes = StringPool.intern(referencedTypes);
+    }
+
+    public void setAccessedFields(List<String> accessedFields) {
+        this.accessedFields = StringPool.intern(accessedFields);
+    }
 }
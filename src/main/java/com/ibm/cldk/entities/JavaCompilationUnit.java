@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -13,4 +14,13 @@ public class JavaCompilationUnit {
     private List<String> imports;
     private Map<String, Type> typeDeclarations;
     private boolean isModified;
+
+    // Recurring values are pooled, see StringPool
+    public void setPackageName(String packageName) {
+        this.packageName = StringPool.intern(packageName);
+    }
+
+    public void setImports(List<String> imports) {
+        this.imports = StringPool.intern(imports);
+    }
 }
@@ -0,0 +1,23 @@
+package com.ibm.cldk.entities;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Represents the call graph as a table of vertices and a list of edges that refer to the vertices by id.
+ *
+ * <p>
+ * The id of a vertex is its index in {@link #vertices}. Vertices are sorted by file path, type declaration, signature
+ * and callable declaration, so that a callable keeps its id across analyses of the same application. Every edge is an
+ * array {@code [source, target, weight]}, where the weight is the number of calls from the source callable to the
+ * target callable; edges are sorted by source and target.
+ * </p>
+ */
+@Data
+public class NormalizedCallGraph {
+    /** Callables that call or are called by application callables */
+    private List<CallableVertex> vertices;
+
+    /** Call edges as {@code [source, target, weight]} */
+    private List<int[]> edges;
+}
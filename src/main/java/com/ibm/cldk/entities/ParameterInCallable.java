@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.List;
 import lombok.Data;
 
@@ -59,4 +60,21 @@ public class ParameterInCallable {
 
     /** The ending column number of the parameter in the source file. */
     private int endColumn;
+
+    // Recurring values are pooled, see StringPool
+    public void setType(String type) {
+        this.type = StringPool.intern(type);
+    }
+
+    public void setAnnotations(List<String> annotations) {
+        this.annotations = StringPool.intern(annotations);
+    }
+
+    public void setModifiers(List<String> modifiers) {
+        this.modifiers = StringPool.intern(modifiers);
+    }
+
+    public void setName(String name) {
+        this.name = StringPool.intern(name);
+    }
 }
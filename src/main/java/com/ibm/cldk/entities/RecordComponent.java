@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
@@ -55,4 +56,17 @@ public class RecordComponent {
 
     /** Indicates whether the record component is a varargs parameter. */
     private boolean isVarArgs = false;
+
+    // Recurring values are pooled, see StringPool
+    public void setType(String type) {
+        this.type = StringPool.intern(type);
+    }
+
+    public void setModifiers(List<String> modifiers) {
+        this.modifiers = StringPool.intern(modifiers);
+    }
+
+    public void setAnnotations(List<String> annotations) {
+        this.annotations = StringPool.intern(annotations);
+    }
 }
@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -77,4 +78,25 @@ public class Type {
 
     /** Indicates if this type is an entry point class. */
     private boolean isEntrypointClass = false;
+
+    // Recurring values are pooled, see StringPool
+    public void setExtendsList(List<String> extendsList) {
+        this.extendsList = StringPool.intern(extendsList);
+    }
+
+    public void setImplementsList(List<String> implementsList) {
+        this.implementsList = StringPool.intern(implementsList);
+    }
+
+    public void setModifiers(List<String> modifiers) {
+        this.modifiers = StringPool.intern(modifiers);
+    }
+
+    public void setAnnotations(List<String> annotations) {
+        this.annotations = StringPool.intern(annotations);
+    }
+
+    public void setParentType(String parentType) {
+        this.parentType = StringPool.intern(parentType);
+    }
 }
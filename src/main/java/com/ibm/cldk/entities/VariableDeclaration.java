@@ -1,5 +1,6 @@
 package com.ibm.cldk.entities;
 
+import com.ibm.cldk.utils.StringPool;
 import lombok.Data;
 
 /**
@@ -58,4 +59,13 @@ public class VariableDeclaration {
 
     /** The ending column number of the variable declaration in the source file. */
     private int endColumn = -1;
+
+    // Recurring values are pooled, see StringPool
+    public void setType(String type) {
+        this.type = StringPool.intern(type);
+    }
+
+    public void setName(String name) {
+        this.name = StringPool.intern(name);
+    }
 }
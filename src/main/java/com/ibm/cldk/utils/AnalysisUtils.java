@@ -12,7 +12,9 @@ limitations under the License.
  */
 package com.ibm.cldk.utils;
 
+import static com.ibm.cldk.CodeAnalyzer.callGraphEntrypoints;
 import static com.ibm.cldk.SymbolTable.declaredMethodsAndConstructors;
+import static com.ibm.cldk.SymbolTable.entrypointClasses;
 
 import com.ibm.cldk.entities.Callable;
 import com.ibm.cldk.entities.Comment;
@@ -28,7 +30,9 @@ import com.ibm.wala.ssa.ISSABasicBlock;
 import com.ibm.wala.ssa.SSAConditionalBranchInstruction;
 import com.ibm.wala.ssa.SSASwitchInstruction;
 import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.MethodReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -40,21 +44,66 @@ import org.objectweb.asm.Type;
  */
 public class AnalysisUtils {
 
+    // Symbol table names of the declaring class and the signature of every method looked up, by method reference
+    private static final Map<MethodReference, Pair<String, String>> methodSignatures = new ConcurrentHashMap<>();
+
+    // Call graph vertex attributes of every method looked up, by method reference
+    private static final Map<MethodReference, Map<String, String>> callableVertices = new ConcurrentHashMap<>();
+
+    /**
+     * Empties the method signature and vertex attribute memos, which refer to the symbol table of the current run.
+     */
+    public static void clearCaches() {
+        methodSignatures.clear();
+        callableVertices.clear();
+    }
+
+    /**
+     * Returns the symbol table names of the declaring class and the signature of the given method, i.e., the keys of
+     * the method in {@link com.ibm.cldk.SymbolTable#declaredMethodsAndConstructors}. Names are computed once per method
+     * reference.
+     *
+     * @param method the method
+     * @return pair of the declaring class name and the method signature
+     */
+    public static Pair<String, String> getMethodSignature(IMethod method) {
+        return methodSignatures.computeIfAbsent(method.getReference(), reference -> {
+            // Get the class name, with a . representation.
+            String declaringClassSignature = method.getDeclaringClass().getName().toString().substring(1).replace("/", ".").replace("$", ".");
+
+            // Get the method arguments, use a . notation for types.
+            List<String> arguments = Arrays.stream(Type.getMethodType(method.getDescriptor().toString()).getArgumentTypes()).map(Type::getClassName).collect(Collectors.toList());
+
+            // Get the method signature.
+            String methodSignature = String.join("", method.getName().toString(), "(", String.join(", ", arguments), ")");
+            return Pair.of(declaringClassSignature, methodSignature);
+        });
+    }
+
+    /**
+     * Returns the call graph vertex attributes of the given method, taken from its callable in the symbol table, or
+     * from a new implicit callable added to the symbol table if it has none. The attributes are computed once per
+     * method reference, so every edge of the method shares them.
+     *
+     * @param method the method
+     * @return vertex attributes of the method
+     */
+    public static Map<String, String> getCallableVertex(IMethod method) {
+        return callableVertices.computeIfAbsent(method.getReference(),
+                reference -> Optional.ofNullable(getCallableFromSymbolTable(method))
+                        .orElseGet(() -> createAndPutNewCallableInSymbolTable(method)));
+    }
+
     /**
      * The constant classAttr.
      */
     public static Map<String, String> createAndPutNewCallableInSymbolTable(IMethod method) {
-        // Get the class name, with a . representation.
-        String declaringClassSignature = method.getDeclaringClass().getName().toString().substring(1).replace("/", ".").replace("$", ".");
-
-        // Get the method arguments, use a . notation for types.
-        List<String> arguments = Arrays.stream(Type.getMethodType(method.getDescriptor().toString()).getArgumentTypes()).map(Type::getClassName).collect(Collectors.toList());
+        Pair<String, String> names = getMethodSignature(method);
+        String declaringClassSignature = names.getLeft();
+        String methodSignature = names.getRight();
 
         String methodName = method.getName().toString();
 
-        // Get the method signature.
-        String methodSignature = String.join("", methodName, "(", String.join(", ", Optional.of(arguments).orElseGet(Collections::emptyList)), ")");
-
         Callable newCallable = new Callable();
         newCallable.setFilePath("");
         newCallable.setImplicit(true);
@@ -118,15 +167,9 @@ public class AnalysisUtils {
 
     public static Map<String, String> getCallableFromSymbolTable(IMethod method) {
 
-        // Get the class name, with a . representation.
-        String declaringClassSignature = method.getDeclaringClass().getName().toString().substring(1).replace("/", ".").replace("$", ".");
-
-        // Get the method arguments, use a . notation for types.
-        List<String> arguments = Arrays.stream(Type.getMethodType(method.getDescriptor().toString()).getArgumentTypes()).map(Type::getClassName).collect(Collectors.toList());
-
-        // Get the method signature.
-        String methodSignature = String.join("", method.getName().toString(), "(", String.join(", ", Optional.of(arguments).orElseGet(Collections::emptyList)), ")");
-        Callable callable = declaredMethodsAndConstructors.get(declaringClassSignature, methodSignature);
+        Pair<String, String> methodSignature = getMethodSignature(method);
+        String declaringClassSignature = methodSignature.getLeft();
+        Callable callable = declaredMethodsAndConstructors.get(declaringClassSignature, methodSignature.getRight());
 
         if (callable == null) {
             return null;
@@ -148,16 +191,9 @@ public class AnalysisUtils {
 
     public static Pair<String, Callable> getCallableObjectFromSymbolTable(IMethod method) {
 
-        // Get the class name, with a . representation.
-        String declaringClassSignature = method.getDeclaringClass().getName().toString().substring(1).replace("/", ".").replace("$", ".");
-
-        // Get the method arguments, use a . notation for types.
-        List<String> arguments = Arrays.stream(Type.getMethodType(method.getDescriptor().toString()).getArgumentTypes()).map(Type::getClassName).collect(Collectors.toList());
-
-        // Get the method signature.
-        String methodSignature = String.join("", method.getName().toString(), "(", String.join(", ", Optional.of(arguments).orElseGet(Collections::emptyList)), ")");
-
-        return Pair.of(declaringClassSignature, declaredMethodsAndConstructors.get(declaringClassSignature, methodSignature));
+        Pair<String, String> methodSignature = getMethodSignature(method);
+        return Pair.of(methodSignature.getLeft(),
+                declaredMethodsAndConstructors.get(methodSignature.getLeft(), methodSignature.getRight()));
     }
 
 
@@ -182,13 +218,15 @@ public class AnalysisUtils {
     }
 
     /**
-     * Use all public methods of all application classes as entrypoints.
+     * Use all public methods of all application classes as entrypoints, or, with {@code --cg-entrypoints detected},
+     * the methods the symbol table flags as entry points and the methods of the classes it flags as entry point
+     * classes.
      *
      * @param cha the cha
      * @return Iterable<Entrypoint> entry points
      */
     public static Iterable<Entrypoint> getEntryPoints(IClassHierarchy cha) {
-        List<Entrypoint> entrypoints = StreamSupport.stream(cha.spliterator(), true).filter(AnalysisUtils::isApplicationClass).flatMap(c -> {
+        List<IMethod> methods = StreamSupport.stream(cha.spliterator(), true).filter(AnalysisUtils::isApplicationClass).flatMap(c -> {
             try {
                 return c.getDeclaredMethods().stream();
             } catch (NullPointerException nullPointerException) {
@@ -196,9 +234,27 @@ public class AnalysisUtils {
                 System.exit(1);
                 return Stream.empty();
             }
-        }).map(method -> new DefaultEntrypoint(method, cha)).collect(Collectors.toList());
+        }).collect(Collectors.toList());
+        if ("detected".equals(callGraphEntrypoints)) {
+            List<IMethod> detectedMethods = methods.stream().filter(AnalysisUtils::isDetectedEntrypoint).collect(Collectors.toList());
+            if (detectedMethods.isEmpty()) {
+                Log.warn("The symbol table flags no entry points; using all methods of application classes as entrypoints.");
+            } else {
+                methods = detectedMethods;
+            }
+        }
         // We're assuming that all methods are potential entrypoints. May revisit this later if the assumption is incorrect.
+        List<Entrypoint> entrypoints = methods.stream().map(method -> new DefaultEntrypoint(method, cha)).collect(Collectors.toList());
         Log.info("Registered " + entrypoints.size() + " entrypoints.");
         return entrypoints;
     }
+
+    /**
+     * Checks whether the symbol table flags the given method, or its declaring class, as an entry point.
+     */
+    private static boolean isDetectedEntrypoint(IMethod method) {
+        Pair<String, Callable> callable = getCallableObjectFromSymbolTable(method);
+        return entrypointClasses.contains(callable.getLeft())
+                || (callable.getRight() != null && callable.getRight().isEntrypoint());
+    }
 }
@@ -1,25 +1,53 @@
 package com.ibm.cldk.utils;
 
+import static com.ibm.cldk.CodeAnalyzer.buildOffline;
+import static com.ibm.cldk.CodeAnalyzer.buildParallel;
+import static com.ibm.cldk.CodeAnalyzer.buildTimeout;
+import static com.ibm.cldk.CodeAnalyzer.dependencyTimeout;
 import static com.ibm.cldk.CodeAnalyzer.includeTestClasses;
+import static com.ibm.cldk.CodeAnalyzer.incrementalBuild;
 import static com.ibm.cldk.CodeAnalyzer.noCleanDependencies;
 import static com.ibm.cldk.CodeAnalyzer.projectRootPom;
 import static com.ibm.cldk.utils.ProjectDirectoryScanner.classFilesStream;
 
+import com.ibm.cldk.SymbolTable;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class BuildProject {
     public static Path libDownloadPath;
     private static final String LIB_DEPS_DOWNLOAD_DIR = "_library_dependencies";
+    // Name of the file that each module writes its resolved classpath to, in its target or build directory
+    private static final String CLASSPATH_FILE_NAME = "codeanalyzer.classpath";
+    // Bump whenever the build files hashed into the classpath cache key or the cache file format change
+    private static final String CLASSPATH_CACHE_FORMAT_VERSION = "1";
+    private static final Set<String> BUILD_FILE_NAMES = Set.of("pom.xml", "build.gradle", "build.gradle.kts",
+            "settings.gradle", "settings.gradle.kts", "gradle.properties", "libs.versions.toml");
+    // How long the output of a build tool is drained after it exits, and how long a killed build tool may take to exit
+    private static final long STREAM_DRAIN_MILLIS = 5000;
+    private static final long KILL_GRACE_SECONDS = 10;
     private static final String MAVEN_CMD = BuildProject.getMavenCommand();
     private static final String GRADLE_CMD = BuildProject.getGradleCommand();
 
@@ -57,6 +85,7 @@ public class BuildProject {
     }
 
     private static final String GRADLE_DEPENDENCIES_TASK = "allprojects { afterEvaluate { project -> task downloadDependencies(type: Copy) { def configs = project.configurations.findAll { it.canBeResolved }; dependsOn configs; from configs; into project.hasProperty('outputDir') ? project.property('outputDir') : \"${project.buildDir}/libs\"; eachFile { fileCopyDetails -> fileCopyDetails.file.setWritable(true) }; doFirst { println \"Downloading dependencies for project ${project.name} to: ${destinationDir}\"; configs.each { config -> println \"Configuration: ${config.name}\"; config.resolvedConfiguration.resolvedArtifacts.each { artifact -> println \"\\t${artifact.moduleVersion.id}:${artifact.extension}\" } } } } } }";
+    private static final String GRADLE_CLASSPATH_TASK = "allprojects { afterEvaluate { project -> task resolveClasspath { def configs = project.configurations.findAll { it.canBeResolved }; doLast { def jars = new LinkedHashSet(); def failures = []; configs.each { config -> def artifacts = config.incoming.artifactView { lenient(true) }.artifacts; jars.addAll(artifacts.artifactFiles.files); failures.addAll(artifacts.failures) }; def classpathFile = new File(project.buildDir, '" + CLASSPATH_FILE_NAME + "'); classpathFile.parentFile.mkdirs(); classpathFile.text = jars.collect { it.absolutePath }.join('\\n'); if (!failures.isEmpty()) { throw new GradleException('Could not resolve all dependencies: ' + failures*.message.join('; ')) } } } } }";
     private static AbstractMap.SimpleEntry<Boolean, String> commandExists(File command) {
         StringBuilder output = new StringBuilder();
         if (!command.exists()) {
@@ -85,26 +114,115 @@ public class BuildProject {
         }
     }
 
-    private static boolean buildWithTool(String[] buildCommand) {
+    /**
+     * Runs a build tool command in the project root and waits for it to exit. Standard output and standard error are
+     * drained concurrently, so that a build tool that fills one pipe while the other is being read cannot stall. If
+     * the command runs longer than the given timeout, fails to be waited for, or is still running when the JVM exits,
+     * the process and all of its descendants are killed.
+     *
+     * @param buildCommand   the command and its arguments
+     * @param timeoutSeconds wall-clock budget in seconds, or 0 for none
+     * @return true if the command exited with code 0
+     */
+    static boolean buildWithTool(String[] buildCommand, int timeoutSeconds) {
         Log.info("Building the project using " + buildCommand[0] + ".");
         ProcessBuilder processBuilder = new ProcessBuilder().directory(new File(projectRootPom)).command(buildCommand);
+        Process process = null;
+        Thread killOnExit = null;
         try {
-            Process process = processBuilder.start();
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Log.info(line);
+            process = processBuilder.start();
+            // Do not leave the build tool running if the analysis is interrupted, e.g., with Ctrl-C
+            Process buildProcess = process;
+            killOnExit = new Thread(() -> killProcessTree(buildProcess), "kill-build-tool");
+            Runtime.getRuntime().addShutdownHook(killOnExit);
+            Thread stdoutPump = pump(process.getInputStream(), Log::info);
+            Thread stderrPump = pump(process.getErrorStream(), System.err::println);
+            if (timeoutSeconds > 0 && !process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                Log.error(buildCommand[0] + " did not finish within " + timeoutSeconds + " seconds; killing it.");
+                killProcessTree(process);
+                return false;
             }
             int exitCode = process.waitFor();
-            process.getErrorStream().transferTo(System.err);
+            // Descendants that inherited the pipes, e.g., a forked compiler, may keep them open after the exit
+            stdoutPump.join(STREAM_DRAIN_MILLIS);
+            stderrPump.join(STREAM_DRAIN_MILLIS);
             Log.info(buildCommand[0].toUpperCase() + " build exited with code " + exitCode);
             return exitCode == 0;
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException e) {
             e.printStackTrace();
             return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (process != null && process.isAlive()) {
+                killProcessTree(process);
+            }
+            if (killOnExit != null) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(killOnExit);
+                } catch (IllegalStateException e) {
+                    // the JVM is shutting down and runs the hook
+                }
+            }
         }
     }
 
+    /**
+     * Starts a daemon thread that hands every line of the given stream to the given consumer until the stream ends.
+     */
+    private static Thread pump(InputStream stream, Consumer<String> lineConsumer) {
+        Thread pump = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineConsumer.accept(line);
+                }
+            } catch (IOException e) {
+                // the stream was closed because the process was killed
+            }
+        }, "build-tool-output");
+        pump.setDaemon(true);
+        pump.start();
+        return pump;
+    }
+
+    /**
+     * Asks the process and its descendants (forked compilers, test JVMs, Gradle workers) to terminate, and kills the
+     * ones that are still alive after a grace period. The descendants are listed before the process is destroyed,
+     * because the orphans of a destroyed process are no longer its descendants.
+     */
+    private static void killProcessTree(Process process) {
+        if (process == null) {
+            return;
+        }
+        List<ProcessHandle> processTree = process.descendants().collect(Collectors.toList());
+        processTree.add(0, process.toHandle());
+        processTree.forEach(ProcessHandle::destroy);
+        try {
+            process.onExit().get(KILL_GRACE_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // killed forcibly below
+        }
+        processTree.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+    }
+
+    /**
+     * Appends the offline and parallel build flags given on the command line to a Maven or Gradle command.
+     */
+    private static String[] withBuildFlags(String[] command, boolean maven) {
+        List<String> flags = new ArrayList<>(Arrays.asList(command));
+        if (buildOffline) {
+            flags.add(maven ? "-o" : "--offline");
+        }
+        if (buildParallel) {
+            flags.addAll(maven ? List.of("-T", "1C") : List.of("--parallel"));
+        }
+        return flags.toArray(new String[0]);
+    }
+
     /**
      * Checks if Maven is installed in the system.
      *
@@ -147,7 +265,7 @@ public class BuildProject {
         else
             mavenCommand = new String[]{MAVEN_CMD, "compile", "-f", projectPath + "/pom.xml", "-B", "-V", "-e", "-Drat.skip", "-Dfindbugs.skip", "-Dcheckstyle.skip", "-Dpmd.skip=true", "-Dspotbugs.skip", "-Denforcer.skip", "-Dmaven.javadoc.skip", "-DskipTests", "-Dmaven.test.skip.exec", "-Dlicense.skip=true", "-Drat.skip=true", "-Dspotless.check.skip=true"};
 
-        return buildWithTool(mavenCommand);
+        return buildWithTool(withBuildFlags(mavenCommand, true), buildTimeout);
     }
 
     public static boolean gradleBuild(String projectPath) {
@@ -163,7 +281,7 @@ public class BuildProject {
             else
                 gradleCommand = new String[]{GRADLE_CMD, "compileJava", "-p", projectPath};
         }
-        return buildWithTool(gradleCommand);
+        return buildWithTool(withBuildFlags(gradleCommand, false), buildTimeout);
     }
 
     private static boolean buildProject(String projectPath, String build) {
@@ -171,6 +289,9 @@ public class BuildProject {
         if (build == null) {
             return true;
         } else if (build.equals("auto")) {
+            if (incrementalBuild && compileIncrementally(projectPath)) {
+                return true;
+            }
             if (pomFile.exists()) {
                 Log.info("Found pom.xml in the project directory. Using Maven to build the project.");
                 return mavenBuild(Paths.get(projectPath).toAbsolutePath().toString()); // Use Maven if pom.xml exists
@@ -183,10 +304,39 @@ public class BuildProject {
             build = build.replace(MAVEN_CMD, MAVEN_CMD + " -f " + projectPath);
             Log.info("Using custom build command: " + build);
             String[] customBuildCommand = build.split(" ");
-            return buildWithTool(customBuildCommand);
+            return buildWithTool(customBuildCommand, buildTimeout);
         }
     }
 
+    /**
+     * Compiles the changed sources of the project in-process against the resolved dependency classpath, resolving it
+     * first if needed (see {@link IncrementalCompiler}).
+     *
+     * @param projectPath is the path to the project to be built.
+     * @return true if the class files of the project are up to date; false if the project must be built with its
+     * build tool instead
+     */
+    private static boolean compileIncrementally(String projectPath) {
+        String projectRoot = projectRootPom != null ? projectRootPom : projectPath;
+        try {
+            if (SymbolTable.dependencyClasspath == null) {
+                // the scope is then built from the same classpath
+                SymbolTable.dependencyClasspath = resolveDependencyClasspath(projectPath, projectRootPom);
+            }
+            if (SymbolTable.dependencyClasspath == null) {
+                Log.warn("Could not resolve the dependency classpath; building the project with its build tool.");
+                return false;
+            }
+            if (IncrementalCompiler.compile(Paths.get(projectRoot), SymbolTable.dependencyClasspath, includeTestClasses)) {
+                return true;
+            }
+        } catch (IOException | IllegalStateException e) {
+            Log.warn("In-process compilation failed: " + e.getMessage());
+        }
+        Log.warn("Building the project with its build tool instead.");
+        return false;
+    }
+
     /**
      * Streams the files in the given project path.
      *
@@ -227,20 +377,10 @@ public class BuildProject {
             else
                 throw new IllegalStateException("Error creating library dependency directory in " + libDownloadPath);
 
-            if (MAVEN_CMD == null || !commandExists(new File(MAVEN_CMD)).getKey()) {
-                String msg = MAVEN_CMD == null ?
-                        "Could not find Maven or a valid Maven Wrapper" :
-                        MessageFormat.format("Could not verify that {0} exists", MAVEN_CMD);
-                Log.error(msg);
-                throw new IllegalStateException("Unable to execute Maven command. " +
-                        (MAVEN_CMD == null ?
-                                "Could not find Maven or a valid Maven Wrapper" :
-                                "Attempt failed with message\n" + commandExists(new File(MAVEN_CMD)).getValue()
-                        ));
-            }
+            requireMaven();
             Log.info("Found pom.xml in the project directory. Using Maven to download dependencies.");
             String[] mavenCommand = {MAVEN_CMD, "--no-transfer-progress", "-f", Paths.get(projectRoot, "pom.xml").toAbsolutePath().toString(), "dependency:copy-dependencies", "-DoutputDirectory=" + libDownloadPath.toString(), "-Doverwrite=true", "--fail-never"};
-            return buildWithTool(mavenCommand);
+            return buildWithTool(withBuildFlags(mavenCommand, true), dependencyTimeout);
         } else if (new File(projectRoot, "build.gradle").exists() || new File(projectRoot, "build.gradle.kts").exists()) {
             libDownloadPath = Paths.get(projectPath, "build", LIB_DEPS_DOWNLOAD_DIR).toAbsolutePath();
                 if (mkLibDepDirs(projectPath))
@@ -248,17 +388,7 @@ public class BuildProject {
                 else
                     throw new IllegalStateException("Error creating library dependency directory in " + libDownloadPath);
 
-            if (GRADLE_CMD == null || !commandExists(new File(GRADLE_CMD)).getKey()) {
-                String msg = GRADLE_CMD == null ?
-                        "Could not find Gradle or valid Gradle Wrapper" :
-                        MessageFormat.format("Could not verify that {0} exists", GRADLE_CMD);
-                Log.error(msg);
-                throw new IllegalStateException("Unable to execute Gradle command. " +
-                        (GRADLE_CMD == null ?
-                                "Could not find Gradle or valid Gradle Wrapper" :
-                                "Attempt failed with message\n" + commandExists(new File(GRADLE_CMD)).getValue()
-                        ));
-            }
+            requireGradle();
             Log.info("Found build.gradle or build.gradle.kts in the project directory. Using Gradle to download dependencies.");
             tempInitScript = Files.writeString(tempInitScript, GRADLE_DEPENDENCIES_TASK);
             String[] gradleCommand;
@@ -267,11 +397,183 @@ public class BuildProject {
             } else {
                 gradleCommand = new String[]{GRADLE_CMD, "--init-script", tempInitScript.toFile().getAbsolutePath(), "downloadDependencies", "-PoutputDir=" + libDownloadPath.toString()};
             }
-            return buildWithTool(gradleCommand);
+            return buildWithTool(withBuildFlags(gradleCommand, false), dependencyTimeout);
         }
         return false;
     }
 
+    /**
+     * Resolves the dependency classpath of the given project with its build tool, without copying any jar, to the jars
+     * where the build tool keeps them (the local Maven repository or the Gradle cache). The resolved classpath is cached in
+     * {@code ~/.codeanalyzer/classpath}, keyed by a hash of the build files of the project, and reused until a build
+     * file changes or a cached jar disappears. A classpath that the build tool resolved only in part is used for the
+     * current run but not cached.
+     *
+     * @param projectPath    Path to the project under analysis
+     * @param projectRootPom Path to the root pom.xml/build.gradle directory of the project, or null
+     * @return the jars of the classpath, or null if it could not be resolved
+     */
+    public static List<Path> resolveDependencyClasspath(String projectPath, String projectRootPom) throws IOException {
+        String projectRoot = projectRootPom != null ? projectRootPom : projectPath;
+        Path projectRootPath = Paths.get(projectRoot).toAbsolutePath();
+        boolean maven = Files.exists(projectRootPath.resolve("pom.xml"));
+        if (!maven && !Files.exists(projectRootPath.resolve("build.gradle"))
+                && !Files.exists(projectRootPath.resolve("build.gradle.kts"))) {
+            return null;
+        }
+
+        Path cacheFile = Paths.get(System.getProperty("user.home"), ".codeanalyzer", "classpath")
+                .resolve(hashBuildFiles(projectRootPath) + ".classpath");
+        if (Files.exists(cacheFile)) {
+            List<Path> cachedClasspath = Files.readAllLines(cacheFile).stream()
+                    .filter(Predicate.not(String::isBlank))
+                    .map(Paths::get)
+                    .collect(Collectors.toList());
+            if (cachedClasspath.stream().allMatch(Files::exists)) {
+                Log.info("Using the dependency classpath of " + cachedClasspath.size() + " jars cached in " + cacheFile + ".");
+                return cachedClasspath;
+            }
+            Log.info("Some jars of the cached dependency classpath are gone; resolving it again.");
+        }
+
+        boolean resolved;
+        if (maven) {
+            requireMaven();
+            Log.info("Found pom.xml in the project directory. Using Maven to resolve the dependency classpath.");
+            // A relative output file is resolved against the base directory of each module; the remaining modules
+            // are still resolved after a failure, but the build then fails, so that a partial classpath is not cached
+            String[] mavenCommand = {MAVEN_CMD, "--no-transfer-progress", "-f", projectRootPath.resolve("pom.xml").toString(), "dependency:build-classpath", "-Dmdep.outputFile=target" + File.separator + CLASSPATH_FILE_NAME, "--fail-at-end"};
+            resolved = buildWithTool(withBuildFlags(mavenCommand, true), dependencyTimeout);
+        } else {
+            requireGradle();
+            Log.info("Found build.gradle or build.gradle.kts in the project directory. Using Gradle to resolve the dependency classpath.");
+            tempInitScript = Files.writeString(tempInitScript, GRADLE_CLASSPATH_TASK);
+            String[] gradleCommand;
+            if (GRADLE_CMD.equals("gradlew") || GRADLE_CMD.equals("gradlew.bat")) {
+                gradleCommand = new String[]{projectRoot + File.separator + GRADLE_CMD, "--init-script", tempInitScript.toFile().getAbsolutePath(), "resolveClasspath", "--continue", "-p", projectRootPath.toString()};
+            } else {
+                gradleCommand = new String[]{GRADLE_CMD, "--init-script", tempInitScript.toFile().getAbsolutePath(), "resolveClasspath", "--continue", "-p", projectRootPath.toString()};
+            }
+            resolved = buildWithTool(withBuildFlags(gradleCommand, false), dependencyTimeout);
+        }
+        List<Path> classpath = readClasspathFiles(projectRootPath);
+        if (!resolved) {
+            // Some module failed to resolve its dependencies; use what was resolved for this run only
+            if (classpath.isEmpty()) {
+                return null;
+            }
+            Log.warn("Resolved a partial dependency classpath of " + classpath.size() + " jars; not caching it.");
+            return classpath;
+        }
+        Log.info("Resolved a dependency classpath of " + classpath.size() + " jars.");
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            // Write to a temporary file first, so that concurrent runs never read a partial classpath
+            Path temporaryFile = cacheFile.resolveSibling(cacheFile.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+            Files.write(temporaryFile, classpath.stream().map(Path::toString).collect(Collectors.toList()));
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Log.warn("Could not cache the dependency classpath in " + cacheFile + ": " + e.getMessage());
+        }
+        return classpath;
+    }
+
+    /**
+     * Reads and deletes the classpath files that the modules of the project wrote, and returns the jars on them, in
+     * order and without duplicates. Class directories of sibling modules are left out; their classes are application
+     * classes.
+     */
+    private static List<Path> readClasspathFiles(Path projectRootPath) throws IOException {
+        List<Path> classpathFiles;
+        try (Stream<Path> paths = Files.walk(projectRootPath)) {
+            classpathFiles = paths
+                    .filter(path -> path.getFileName().toString().equals(CLASSPATH_FILE_NAME))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Set<Path> jars = new LinkedHashSet<>();
+        for (Path classpathFile : classpathFiles) {
+            // Maven separates the entries with the path separator, the Gradle task with line breaks
+            for (String entry : Files.readString(classpathFile).split("[\\r\\n" + File.pathSeparator + "]+")) {
+                Path jar = Paths.get(entry.strip());
+                if (entry.strip().endsWith(".jar") && Files.isRegularFile(jar)) {
+                    jars.add(jar.toAbsolutePath());
+                }
+            }
+            Files.delete(classpathFile);
+        }
+        return new ArrayList<>(jars);
+    }
+
+    /**
+     * Hashes the build files of the project (POMs, Gradle build and settings scripts, Gradle properties and version
+     * catalogs) by path and contents, skipping hidden directories and the target and build output directories.
+     */
+    private static String hashBuildFiles(Path projectRootPath) throws IOException {
+        List<Path> buildFiles = new ArrayList<>();
+        Files.walkFileTree(projectRootPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                String name = dir.getFileName().toString();
+                boolean skip = !dir.equals(projectRootPath)
+                        && (Files.isHidden(dir) || name.equals("target") || name.equals("build"));
+                return skip ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (BUILD_FILE_NAMES.contains(file.getFileName().toString())) {
+                    buildFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(buildFiles);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((CLASSPATH_CACHE_FORMAT_VERSION + "\n" + projectRootPath + "\n").getBytes(StandardCharsets.UTF_8));
+            for (Path buildFile : buildFiles) {
+                digest.update((projectRootPath.relativize(buildFile) + "\n").getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(buildFile));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void requireMaven() {
+        if (MAVEN_CMD == null || !commandExists(new File(MAVEN_CMD)).getKey()) {
+            String msg = MAVEN_CMD == null ?
+                    "Could not find Maven or a valid Maven Wrapper" :
+                    MessageFormat.format("Could not verify that {0} exists", MAVEN_CMD);
+            Log.error(msg);
+            throw new IllegalStateException("Unable to execute Maven command. " +
+                    (MAVEN_CMD == null ?
+                            "Could not find Maven or a valid Maven Wrapper" :
+                            "Attempt failed with message\n" + commandExists(new File(MAVEN_CMD)).getValue()
+                    ));
+        }
+    }
+
+    private static void requireGradle() {
+        if (GRADLE_CMD == null || !commandExists(new File(GRADLE_CMD)).getKey()) {
+            String msg = GRADLE_CMD == null ?
+                    "Could not find Gradle or valid Gradle Wrapper" :
+                    MessageFormat.format("Could not verify that {0} exists", GRADLE_CMD);
+            Log.error(msg);
+            throw new IllegalStateException("Unable to execute Gradle command. " +
+                    (GRADLE_CMD == null ?
+                            "Could not find Gradle or valid Gradle Wrapper" :
+                            "Attempt failed with message\n" + commandExists(new File(GRADLE_CMD)).getValue()
+                    ));
+        }
+    }
+
     public static void cleanLibraryDependencies() {
         if (noCleanDependencies) {
             return;
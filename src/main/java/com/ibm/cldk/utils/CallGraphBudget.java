@@ -0,0 +1,72 @@
+package com.ibm.cldk.utils;
+
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+
+/**
+ * Progress monitor that cancels call graph construction when a wall-clock or heap budget runs out.
+ *
+ * <p>
+ * WALA's propagation solvers poll {@link #isCanceled()} while they iterate, and stop with a
+ * {@link com.ibm.wala.ipa.callgraph.CallGraphBuilderCancelException} once it returns true. The heap budget is checked
+ * against the currently used heap, which includes garbage that has not been collected yet.
+ * </p>
+ */
+public class CallGraphBudget implements IProgressMonitor {
+
+    private final long deadline;
+    private final long maxHeapBytes;
+    private volatile String cancelMessage;
+
+    /**
+     * Creates a budget that starts now.
+     *
+     * @param timeoutSeconds   wall-clock budget in seconds, or 0 for no budget
+     * @param maxHeapMegabytes heap budget in megabytes, or 0 for no budget
+     */
+    public CallGraphBudget(int timeoutSeconds, int maxHeapMegabytes) {
+        this.deadline = timeoutSeconds > 0 ? System.nanoTime() + timeoutSeconds * 1_000_000_000L : 0;
+        this.maxHeapBytes = maxHeapMegabytes * 1024L * 1024L;
+    }
+
+    @Override
+    public boolean isCanceled() {
+        if (cancelMessage != null) {
+            return true;
+        }
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            cancelMessage = "the time budget ran out";
+        } else if (maxHeapBytes > 0) {
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > maxHeapBytes) {
+                cancelMessage = "the heap budget ran out";
+            }
+        }
+        return cancelMessage != null;
+    }
+
+    @Override
+    public void cancel() {
+        cancelMessage = "canceled";
+    }
+
+    @Override
+    public String getCancelMessage() {
+        return cancelMessage;
+    }
+
+    @Override
+    public void beginTask(String task, int totalWork) {
+    }
+
+    @Override
+    public void subTask(String subTask) {
+    }
+
+    @Override
+    public void worked(int units) {
+    }
+
+    @Override
+    public void done() {
+    }
+}
@@ -0,0 +1,99 @@
+package com.ibm.cldk.utils;
+
+import com.ibm.cldk.entities.Callable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index of the callables declared by each type, looked up by signature.
+ *
+ * <p>
+ * Callables are indexed by declaring type, method name and arity, and keep their parameter types pre-split. A lookup
+ * matches a declared callable with the same name and arity whose parameter types are suffixes of the looked-up
+ * parameter types, so that a fully qualified signature such as {@code foo(java.lang.String)} (e.g., from WALA) finds
+ * a callable declared with an unresolved parameter type such as {@code foo(String)}. An exact signature match always
+ * wins over a suffix match. Reads and writes are safe from multiple threads.
+ * </p>
+ */
+public class CallableSignatureIndex {
+
+    private final Map<String, Map<String, List<Entry>>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a callable to the index, replacing any callable of the same type with the same signature.
+     *
+     * @param typeName declaring type name
+     * @param signature callable signature, e.g. {@code foo(java.lang.String, int)}
+     * @param callable callable to add
+     */
+    public void put(String typeName, String signature, Callable callable) {
+        Entry entry = new Entry(signature, callable);
+        List<Entry> candidates = index.computeIfAbsent(typeName, type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entry.nameAndArity, key -> new CopyOnWriteArrayList<>());
+        synchronized (candidates) {
+            candidates.removeIf(candidate -> candidate.signature.equals(signature));
+            candidates.add(entry);
+        }
+    }
+
+    /**
+     * Looks up the callable of the given type that matches the given signature.
+     *
+     * @param typeName declaring type name
+     * @param signature callable signature to look up
+     * @return matching callable, or null if there is none
+     */
+    public Callable get(String typeName, String signature) {
+        Map<String, List<Entry>> callables = index.get(typeName);
+        if (callables == null) {
+            return null;
+        }
+        Entry lookup = new Entry(signature, null);
+        List<Entry> candidates = callables.get(lookup.nameAndArity);
+        if (candidates == null) {
+            return null;
+        }
+        Callable suffixMatch = null;
+        for (Entry candidate : candidates) {
+            if (candidate.signature.equals(signature)) {
+                return candidate.callable;
+            }
+            if (suffixMatch == null && lookup.parametersEndWith(candidate)) {
+                suffixMatch = candidate.callable;
+            }
+        }
+        return suffixMatch;
+    }
+
+    private static final class Entry {
+        private final String signature;
+        private final String nameAndArity;
+        private final String[] parameterTypes;
+        private final Callable callable;
+
+        private Entry(String signature, Callable callable) {
+            this.signature = signature;
+            this.callable = callable;
+            int open = signature.indexOf('(');
+            int close = signature.lastIndexOf(')');
+            String name = open < 0 ? signature : signature.substring(0, open);
+            String parameters = open < 0 || close < open ? "" : signature.substring(open + 1, close);
+            this.parameterTypes = parameters.isBlank() ? new String[0] : parameters.split(",");
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterTypes[i] = parameterTypes[i].trim();
+            }
+            this.nameAndArity = name + "/" + parameterTypes.length;
+        }
+
+        private boolean parametersEndWith(Entry declared) {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (!parameterTypes[i].endsWith(declared.parameterTypes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
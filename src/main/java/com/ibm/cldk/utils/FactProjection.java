@@ -0,0 +1,97 @@
+package com.ibm.cldk.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects which of the optional facts of the symbol table are computed.
+ *
+ * <p>
+ * The optional facts are named after the entity fields they fill: {@code code}, {@code comments},
+ * {@code call_sites}, {@code variable_declarations}, {@code accessed_fields}, {@code referenced_types},
+ * {@code crud_operations} and {@code crud_queries}. A fact that is not selected is never computed; its field is left
+ * empty. All other fields, such as type and callable signatures, are always computed. The name {@code all} stands for
+ * all optional facts, so that, e.g., {@code --exclude all} extracts only the skeleton of the symbol table.
+ * </p>
+ */
+public class FactProjection {
+
+    /** Source code of callables and initialization blocks. */
+    public static final String CODE = "code";
+
+    /** Comments of compilation units, types, callables and initialization blocks. */
+    public static final String COMMENTS = "comments";
+
+    public static final String CALL_SITES = "call_sites";
+
+    public static final String VARIABLE_DECLARATIONS = "variable_declarations";
+
+    public static final String ACCESSED_FIELDS = "accessed_fields";
+
+    public static final String REFERENCED_TYPES = "referenced_types";
+
+    public static final String CRUD_OPERATIONS = "crud_operations";
+
+    public static final String CRUD_QUERIES = "crud_queries";
+
+    private static final String ALL_FACTS = "all";
+
+    private static final List<String> FACTS = Collections.unmodifiableList(Arrays.asList(CODE, COMMENTS, CALL_SITES,
+            VARIABLE_DECLARATIONS, ACCESSED_FIELDS, REFERENCED_TYPES, CRUD_OPERATIONS, CRUD_QUERIES));
+
+    /** Projection that computes all facts. */
+    public static final FactProjection ALL = new FactProjection(new LinkedHashSet<>(FACTS));
+
+    private final Set<String> facts;
+
+    private FactProjection(Set<String> facts) {
+        this.facts = facts;
+    }
+
+    /**
+     * Creates the projection that computes the included facts, except for the excluded ones.
+     *
+     * @param include facts to compute, or null for all facts
+     * @param exclude facts not to compute, or null for none
+     * @return projection
+     * @throws IllegalArgumentException if a fact name is unknown
+     */
+    public static FactProjection of(List<String> include, List<String> exclude) {
+        if (include == null && exclude == null) {
+            return ALL;
+        }
+        Set<String> facts = new LinkedHashSet<>(include == null ? FACTS : expand(include));
+        if (exclude != null) {
+            facts.removeAll(expand(exclude));
+        }
+        return new FactProjection(facts);
+    }
+
+    private static Set<String> expand(List<String> factNames) {
+        Set<String> facts = new LinkedHashSet<>();
+        for (String factName : factNames) {
+            String fact = factName.strip().toLowerCase();
+            if (ALL_FACTS.equals(fact)) {
+                facts.addAll(FACTS);
+            } else if (FACTS.contains(fact)) {
+                facts.add(fact);
+            } else {
+                throw new IllegalArgumentException(
+                        "Unknown fact: " + factName + "; expected one of " + FACTS + " or " + ALL_FACTS);
+            }
+        }
+        return facts;
+    }
+
+    public boolean includes(String fact) {
+        return facts.contains(fact);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", facts);
+    }
+}
@@ -0,0 +1,524 @@
+package com.ibm.cldk.utils;
+
+import static com.ibm.cldk.CodeAnalyzer.gson;
+
+import com.google.gson.JsonParseException;
+import com.ibm.wala.shrike.shrikeCT.ClassConstants;
+import com.ibm.wala.shrike.shrikeCT.ClassReader;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles a Maven or Gradle project in-process with the Java compiler of the running JDK, recompiling only the
+ * source files that changed since the previous compilation.
+ *
+ * <p>
+ * Every module is expected in the standard layout: sources in {@code src/main/java} (and {@code src/test/java} when
+ * test classes are included), compiled into {@code target/classes} and {@code target/test-classes} for Maven modules,
+ * or {@code build/classes/java/main} and {@code build/classes/java/test} for Gradle modules, where the build tool
+ * would put them. A state file in the {@code target} or {@code build} directory of the project root records the size,
+ * modification time and class files of every compiled source file, and a fingerprint of the classpath and of the
+ * compiler. A source file is recompiled if it is new, if its size or modification time changed, or if one of its
+ * class files is gone, and so is every source file whose class files refer, directly or through other recompiled
+ * source files, to a class of a changed or deleted source file; the class files of all of them are deleted first.
+ * If a changed or deleted class declares compile-time constants, which the compiler inlines into their users without
+ * a reference, the fingerprint changed, or there is no state yet, everything is recompiled. If no source file
+ * changed, the compiler is not run.
+ * </p>
+ *
+ * <p>
+ * Projects that generate sources with build plugins do not compile this way; {@link #compile(Path, List, boolean)}
+ * then fails and the caller falls back to the build tool. Projects with annotation processors on the classpath are
+ * left to the build tool as well: the compiler does not tell which source file a generated source or class file
+ * originates from, so that neither its module nor when it is stale would be known.
+ * </p>
+ */
+public class IncrementalCompiler {
+
+    private static final String STATE_FILE_NAME = "codeanalyzer-compile.json";
+    // Bump whenever the state file format or the compiler options change
+    private static final String STATE_FORMAT_VERSION = "2";
+    private static final String PROCESSOR_SERVICE = "META-INF/services/javax.annotation.processing.Processor";
+    // Release level settings of Maven and Gradle builds, from the most to the least specific
+    private static final List<Pattern> RELEASE_LEVEL_PATTERNS = List.of(
+            Pattern.compile("<maven\\.compiler\\.release>\\s*([\\d.]+)\\s*<"),
+            Pattern.compile("<release>\\s*([\\d.]+)\\s*</release>"),
+            Pattern.compile("<maven\\.compiler\\.target>\\s*([\\d.]+)\\s*<"),
+            Pattern.compile("<target>\\s*([\\d.]+)\\s*</target>"),
+            Pattern.compile("<maven\\.compiler\\.source>\\s*([\\d.]+)\\s*<"),
+            Pattern.compile("<source>\\s*([\\d.]+)\\s*</source>"),
+            Pattern.compile("JavaLanguageVersion\\.of\\(\\s*(\\d+)\\s*\\)"),
+            Pattern.compile("release\\s*(?:=|\\.set\\()\\s*(\\d+)"),
+            Pattern.compile("targetCompatibility\\s*=\\s*(?:JavaVersion\\.VERSION_)?['\"]?([\\d._]+)"),
+            Pattern.compile("sourceCompatibility\\s*=\\s*(?:JavaVersion\\.VERSION_)?['\"]?([\\d._]+)"));
+
+    private final Path projectRoot;
+    private final List<SourceSet> sourceSets;
+
+    private IncrementalCompiler(Path projectRoot, List<SourceSet> sourceSets) {
+        this.projectRoot = projectRoot;
+        this.sourceSets = sourceSets;
+    }
+
+    /**
+     * Compiles the source files of the project that changed since the previous compilation.
+     *
+     * @param projectRoot  root directory of the project
+     * @param classpath    dependency jars of the project
+     * @param includeTests whether to compile the test sources too
+     * @return true if the class files of the project are up to date; false if the project has no source in the
+     * standard layout, annotation processors are on the classpath, the running Java has no compiler, or the
+     * compilation failed
+     * @throws IOException if a source, class or state file cannot be read or written
+     */
+    public static boolean compile(Path projectRoot, List<Path> classpath, boolean includeTests) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            Log.warn("The running Java has no compiler; cannot compile the project in-process.");
+            return false;
+        }
+        Path root = projectRoot.toAbsolutePath().normalize();
+        List<SourceSet> sourceSets = findSourceSets(root, includeTests);
+        if (sourceSets.isEmpty()) {
+            Log.warn("Found no source directory in the standard layout; cannot compile the project in-process.");
+            return false;
+        }
+        Path processorJar = findAnnotationProcessorJar(classpath);
+        if (processorJar != null) {
+            Log.warn("Found annotation processors in " + processorJar + "; cannot compile the project in-process.");
+            return false;
+        }
+        return new IncrementalCompiler(root, sourceSets).compile(compiler, classpath);
+    }
+
+    private boolean compile(JavaCompiler compiler, List<Path> classpath) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Path> compilationClasspath = new ArrayList<>(classpath);
+        sourceSets.forEach(sourceSet -> compilationClasspath.add(sourceSet.outputDirectory));
+        List<String> options = new ArrayList<>(List.of("-g", "-nowarn", "-implicit:none", "-Xlint:none", "-proc:none"));
+        // The bytecode of a release level, e.g., nest mates from 11 on, changes the calls seen by the call graph
+        String release = findReleaseLevel();
+        if (release != null && compiler.getSourceVersions().stream()
+                .anyMatch(version -> version.name().equals("RELEASE_" + release))) {
+            options.addAll(List.of("--release", release));
+        } else if (release != null) {
+            Log.warn("The running Java cannot compile for Java " + release + "; compiling for Java "
+                    + Runtime.version().feature() + ".");
+        }
+        String fingerprint = fingerprint(compilationClasspath, options);
+
+        Path stateFile = getStateFile();
+        State state = readState(stateFile);
+        // The class files recorded in an outdated state are still deleted below, as all sources count as changed
+        boolean recompileAll = state == null || !fingerprint.equals(state.fingerprint);
+        if (state == null) {
+            state = new State();
+        } else if (recompileAll) {
+            Log.info("The classpath or the compiler changed; recompiling all sources.");
+        }
+        state.fingerprint = fingerprint;
+
+        // Find the changed source files, and delete the class files of changed and deleted ones
+        Map<Path, SourceSet> sourceFiles = new LinkedHashMap<>();
+        for (SourceSet sourceSet : sourceSets) {
+            for (Path sourceFile : listSourceFiles(sourceSet.sourceDirectory)) {
+                sourceFiles.put(sourceFile, sourceSet);
+            }
+        }
+        List<Path> changedSourceFiles = new ArrayList<>();
+        for (Path sourceFile : sourceFiles.keySet()) {
+            SourceState sourceState = state.sources.get(sourceFile.toString());
+            if (recompileAll || sourceState == null || !sourceState.isUpToDate(sourceFile)) {
+                changedSourceFiles.add(sourceFile);
+            }
+        }
+        if (!recompileAll && !addDependentSourceFiles(state, sourceFiles, changedSourceFiles)) {
+            Log.info("A changed class declares constants that its dependents may have inlined; recompiling all sources.");
+            changedSourceFiles = new ArrayList<>(sourceFiles.keySet());
+        }
+        Set<Path> changed = new HashSet<>(changedSourceFiles);
+        List<String> staleSources = state.sources.keySet().stream()
+                .filter(source -> !sourceFiles.containsKey(Path.of(source)) || changed.contains(Path.of(source)))
+                .collect(Collectors.toList());
+        for (String source : staleSources) {
+            for (String classFile : state.sources.remove(source).classFiles) {
+                Files.deleteIfExists(Path.of(classFile));
+            }
+        }
+        if (changedSourceFiles.isEmpty()) {
+            Log.info("All " + sourceFiles.size() + " source files are up to date; skipping the build.");
+            writeState(stateFile, state);
+            return true;
+        }
+        Log.info("Compiling " + changedSourceFiles.size() + " of " + sourceFiles.size() + " source files in-process.");
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<Path, List<String>> producedClassFiles = new HashMap<>();
+        boolean success;
+        try (StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            for (SourceSet sourceSet : sourceSets) {
+                Files.createDirectories(sourceSet.outputDirectory);
+            }
+            standardFileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, compilationClasspath);
+            // Only the given sources are compiled; unchanged ones are read from their class files
+            standardFileManager.setLocationFromPaths(StandardLocation.SOURCE_PATH, List.of());
+            standardFileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT,
+                    List.of(sourceSets.get(0).outputDirectory));
+            JavaFileManager fileManager = new RoutingFileManager(standardFileManager, sourceFiles, producedClassFiles);
+            Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromPaths(
+                    changedSourceFiles);
+            success = compiler.getTask(null, fileManager, diagnostics, options, null, compilationUnits).call();
+        }
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                Log.error(diagnostic.toString());
+            }
+        }
+        if (!success) {
+            Log.error("In-process compilation failed.");
+            return false;
+        }
+
+        for (Path sourceFile : changedSourceFiles) {
+            SourceState sourceState = new SourceState();
+            sourceState.size = Files.size(sourceFile);
+            sourceState.modifiedTime = Files.getLastModifiedTime(sourceFile).toMillis();
+            sourceState.classFiles = producedClassFiles.getOrDefault(sourceFile, new ArrayList<>());
+            state.sources.put(sourceFile.toString(), sourceState);
+        }
+        writeState(stateFile, state);
+        Log.info("Compiled " + changedSourceFiles.size() + " source files in "
+                + Math.ceil((double) (System.currentTimeMillis() - start) / 1000) + " seconds.");
+        return true;
+    }
+
+    /**
+     * Adds the unchanged source files whose class files refer to a class of a changed or deleted source file to the
+     * changed source files, and so on for the added ones, reading the class files recorded in the state. Compile-time
+     * constants are inlined by the compiler, so that the class files of their users do not refer to the class
+     * declaring them; a change to a class declaring constants therefore cannot be followed this way.
+     *
+     * @return false if every source file must be recompiled, as a changed or deleted source file declared constants or
+     * its recorded class files cannot be read
+     */
+    private boolean addDependentSourceFiles(State state, Map<Path, SourceSet> sourceFiles,
+            List<Path> changedSourceFiles) throws IOException {
+        Set<Path> changed = new HashSet<>(changedSourceFiles);
+        Set<String> changedClasses = new HashSet<>();
+        Map<Path, Set<String>> referencedClasses = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, SourceState> source : state.sources.entrySet()) {
+                Path sourceFile = Path.of(source.getKey());
+                if (changed.contains(sourceFile) || !sourceFiles.containsKey(sourceFile)) {
+                    for (String classFile : source.getValue().classFiles) {
+                        if (!Files.exists(Path.of(classFile))) {
+                            return false;
+                        }
+                        ClassReader classReader = new ClassReader(Files.readAllBytes(Path.of(classFile)));
+                        if (declaresConstants(classReader)) {
+                            return false;
+                        }
+                        changedClasses.add(classReader.getName());
+                    }
+                } else {
+                    Set<String> references = new HashSet<>();
+                    for (String classFile : source.getValue().classFiles) {
+                        JdkModules.addReferencedClasses(Files.readAllBytes(Path.of(classFile)), references);
+                    }
+                    referencedClasses.put(sourceFile, references);
+                }
+            }
+        } catch (InvalidClassFileException e) {
+            Log.warn("Cannot read a recorded class file: " + e.getMessage());
+            return false;
+        }
+        // Follow the references until no further source file is affected
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (Map.Entry<Path, Set<String>> source : referencedClasses.entrySet()) {
+                if (!changed.contains(source.getKey())
+                        && source.getValue().stream().anyMatch(changedClasses::contains)) {
+                    changed.add(source.getKey());
+                    changedSourceFiles.add(source.getKey());
+                    try {
+                        for (String classFile : state.sources.get(source.getKey().toString()).classFiles) {
+                            ClassReader classReader = new ClassReader(Files.readAllBytes(Path.of(classFile)));
+                            if (declaresConstants(classReader)) {
+                                return false;
+                            }
+                            changedClasses.add(classReader.getName());
+                        }
+                    } catch (InvalidClassFileException e) {
+                        Log.warn("Cannot read a recorded class file: " + e.getMessage());
+                        return false;
+                    }
+                    added = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the given class declares a constant that other source files may use, i.e., a static final field
+     * with a constant value that is not private; {@code serialVersionUID} is only read by serialization.
+     */
+    private static boolean declaresConstants(ClassReader classReader) throws InvalidClassFileException {
+        ClassReader.AttrIterator attributes = new ClassReader.AttrIterator();
+        for (int i = 0; i < classReader.getFieldCount(); i++) {
+            int flags = classReader.getFieldAccessFlags(i);
+            if ((flags & ClassConstants.ACC_STATIC) == 0 || (flags & ClassConstants.ACC_FINAL) == 0
+                    || (flags & ClassConstants.ACC_PRIVATE) != 0
+                    || classReader.getFieldName(i).equals("serialVersionUID")) {
+                continue;
+            }
+            for (classReader.initFieldAttributeIterator(i, attributes); attributes.isValid(); attributes.advance()) {
+                if (attributes.getName().equals("ConstantValue")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the source directories of the modules of the project, i.e., of the project root and of every directory
+     * below it with a build file, skipping hidden directories and build output directories.
+     */
+    private static List<SourceSet> findSourceSets(Path projectRoot, boolean includeTests) throws IOException {
+        List<SourceSet> sourceSets = new ArrayList<>();
+        Files.walkFileTree(projectRoot, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                String name = dir.getFileName().toString();
+                if (!dir.equals(projectRoot)
+                        && (Files.isHidden(dir) || name.equals("target") || name.equals("build") || name.equals("src"))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                boolean maven = Files.exists(dir.resolve("pom.xml"));
+                if (maven || Files.exists(dir.resolve("build.gradle")) || Files.exists(dir.resolve("build.gradle.kts"))) {
+                    Path outputRoot = dir.resolve(maven ? "target" : "build");
+                    addSourceSet(sourceSets, dir.resolve("src/main/java"),
+                            maven ? outputRoot.resolve("classes") : outputRoot.resolve("classes/java/main"));
+                    if (includeTests) {
+                        addSourceSet(sourceSets, dir.resolve("src/test/java"),
+                                maven ? outputRoot.resolve("test-classes") : outputRoot.resolve("classes/java/test"));
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return sourceSets;
+    }
+
+    private static void addSourceSet(List<SourceSet> sourceSets, Path sourceDirectory, Path outputDirectory) {
+        if (Files.isDirectory(sourceDirectory)) {
+            sourceSets.add(new SourceSet(sourceDirectory, outputDirectory));
+        }
+    }
+
+    /**
+     * Finds a jar on the classpath that registers annotation processors.
+     *
+     * @return the first such jar, or null if there is none
+     */
+    private static Path findAnnotationProcessorJar(List<Path> classpath) throws IOException {
+        for (Path entry : classpath) {
+            if (!Files.isRegularFile(entry) || !entry.toString().endsWith(".jar")) {
+                continue;
+            }
+            try (JarFile jarFile = new JarFile(entry.toFile())) {
+                if (jarFile.getEntry(PROCESSOR_SERVICE) != null) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Path> listSourceFiles(Path sourceDirectory) throws IOException {
+        try (Stream<Path> paths = Files.walk(sourceDirectory)) {
+            return paths.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Finds the Java release level that the build file of the project root compiles for, from the Maven compiler
+     * properties or plugin configuration, or from the Gradle toolchain or source compatibility, e.g., {@code 8} for
+     * {@code <maven.compiler.target>1.8</maven.compiler.target>}.
+     *
+     * @return release level, or null if the build file does not set one
+     */
+    private String findReleaseLevel() throws IOException {
+        Path buildFile = Stream.of("pom.xml", "build.gradle", "build.gradle.kts")
+                .map(projectRoot::resolve)
+                .filter(Files::exists)
+                .findFirst()
+                .orElse(null);
+        if (buildFile == null) {
+            return null;
+        }
+        String build = Files.readString(buildFile);
+        for (Pattern pattern : RELEASE_LEVEL_PATTERNS) {
+            Matcher matcher = pattern.matcher(build);
+            if (matcher.find()) {
+                String level = matcher.group(1).replace('_', '.');
+                return level.startsWith("1.") ? level.substring(2) : level;
+            }
+        }
+        return null;
+    }
+
+    private Path getStateFile() {
+        boolean maven = Files.exists(projectRoot.resolve("pom.xml"));
+        return projectRoot.resolve(maven ? "target" : "build").resolve(STATE_FILE_NAME);
+    }
+
+    private static State readState(Path stateFile) throws IOException {
+        if (!Files.exists(stateFile)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, State.class);
+        } catch (JsonParseException e) {
+            Log.warn("Discarding unreadable compilation state " + stateFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeState(Path stateFile, State state) throws IOException {
+        Files.createDirectories(stateFile.getParent());
+        Path temporaryFile = stateFile.resolveSibling(STATE_FILE_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+            gson.toJson(state, writer);
+        }
+        Files.move(temporaryFile, stateFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Computes a fingerprint of the compiler, its options and the jars on the classpath; output directories are left
+     * out, as their contents are tracked per source file.
+     */
+    private static String fingerprint(List<Path> classpath, List<String> options) throws IOException {
+        List<String> entries = new ArrayList<>();
+        entries.add(STATE_FORMAT_VERSION);
+        entries.add(System.getProperty("java.home") + ":" + Runtime.version());
+        entries.add(String.join(" ", options));
+        for (Path entry : classpath) {
+            if (Files.isRegularFile(entry)) {
+                entries.add(entry.toAbsolutePath() + ":" + Files.size(entry) + ":"
+                        + Files.getLastModifiedTime(entry).toMillis());
+            }
+        }
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256")
+                    .digest(String.join("\n", entries).getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Source directory of a module, with the directory its class files go to.
+     */
+    private static final class SourceSet {
+        private final Path sourceDirectory;
+        private final Path outputDirectory;
+
+        private SourceSet(Path sourceDirectory, Path outputDirectory) {
+            this.sourceDirectory = sourceDirectory;
+            this.outputDirectory = outputDirectory;
+        }
+    }
+
+    /**
+     * File manager that writes the class files of every source file to the output directory of its module, and
+     * records which class files each source file produced.
+     */
+    private static final class RoutingFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<Path, SourceSet> sourceFiles;
+        private final Map<Path, List<String>> producedClassFiles;
+
+        private RoutingFileManager(StandardJavaFileManager fileManager, Map<Path, SourceSet> sourceFiles,
+                Map<Path, List<String>> producedClassFiles) {
+            super(fileManager);
+            this.sourceFiles = sourceFiles;
+            this.producedClassFiles = producedClassFiles;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                FileObject sibling) throws IOException {
+            Path sourceFile = sibling != null && "file".equals(sibling.toUri().getScheme())
+                    ? Path.of(sibling.toUri()) : null;
+            SourceSet sourceSet = sourceFile != null ? sourceFiles.get(sourceFile) : null;
+            if (sourceSet == null || location != StandardLocation.CLASS_OUTPUT) {
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            }
+            Path outputFile = sourceSet.outputDirectory.resolve(className.replace('.', '/') + kind.extension);
+            Files.createDirectories(outputFile.getParent());
+            producedClassFiles.computeIfAbsent(sourceFile, file -> new ArrayList<>()).add(outputFile.toString());
+            return fileManager.getJavaFileObjects(outputFile).iterator().next();
+        }
+    }
+
+    private static final class State {
+        private String fingerprint;
+        private Map<String, SourceState> sources = new LinkedHashMap<>();
+    }
+
+    private static final class SourceState {
+        private long size;
+        private long modifiedTime;
+        private List<String> classFiles = new ArrayList<>();
+
+        /**
+         * Checks whether the source file has the recorded size and modification time and all its class files exist.
+         */
+        private boolean isUpToDate(Path sourceFile) throws IOException {
+            return size == Files.size(sourceFile) && modifiedTime == Files.getLastModifiedTime(sourceFile).toMillis()
+                    && classFiles.stream().allMatch(classFile -> Files.exists(Path.of(classFile)));
+        }
+    }
+}
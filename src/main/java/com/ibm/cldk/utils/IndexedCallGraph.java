@@ -0,0 +1,171 @@
+package com.ibm.cldk.utils;
+
+import com.ibm.cldk.entities.AbstractGraphEdge;
+import com.ibm.cldk.entities.CallEdge;
+import com.ibm.cldk.entities.CallableVertex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedGraph;
+
+/**
+ * Call graph between callables, indexed by integer vertex ids.
+ *
+ * <p>
+ * Vertices are the callables, identified by their symbol table attributes ({@code filePath}, {@code typeDeclaration},
+ * {@code signature} and {@code callableDeclaration}) and numbered in the order they are added. Calls are recorded as
+ * packed {@code long} pairs of vertex ids; when the graph is first read, the calls are sorted and merged into a
+ * compressed sparse row (CSR) adjacency, where the weight of an edge is the number of calls between its callables.
+ * No object is allocated per call or per edge. A JGraphT graph can be derived with {@link #toGraph()} if needed.
+ * </p>
+ *
+ * <p>
+ * The graph is built in two phases: vertices and calls can only be added until the graph is first read.
+ * </p>
+ */
+public class IndexedCallGraph {
+
+    /**
+     * Receives the edges of the graph.
+     */
+    public interface EdgeConsumer {
+        void accept(int source, int target, int weight);
+    }
+
+    private final Map<Map<String, String>, Integer> vertexIds = new HashMap<>();
+    private final List<Map<String, String>> vertices = new ArrayList<>();
+
+    // Recorded calls, source id in the high and target id in the low half, until the graph is compacted
+    private long[] calls = new long[1024];
+    private int callCount;
+
+    // CSR adjacency: the edges of vertex v are at [edgeOffsets[v], edgeOffsets[v + 1])
+    private int[] edgeOffsets;
+    private int[] edgeTargets;
+    private int[] edgeWeights;
+
+    /**
+     * Returns the id of the given callable, adding it as a vertex if it is not in the graph yet.
+     *
+     * @param callable symbol table attributes of the callable
+     * @return vertex id
+     * @throws IllegalStateException if the callable is not in the graph and the graph has already been read
+     */
+    public int addVertex(Map<String, String> callable) {
+        Integer id = vertexIds.get(callable);
+        if (id == null) {
+            if (edgeOffsets != null) {
+                throw new IllegalStateException("Vertices cannot be added after the call graph has been read");
+            }
+            id = vertices.size();
+            vertexIds.put(callable, id);
+            vertices.add(callable);
+        }
+        return id;
+    }
+
+    /**
+     * Records a call between the given vertices.
+     *
+     * @param source id of the calling vertex
+     * @param target id of the called vertex
+     * @throws IllegalStateException if the graph has already been read
+     */
+    public void addCall(int source, int target) {
+        if (edgeOffsets != null) {
+            throw new IllegalStateException("Calls cannot be added after the call graph has been read");
+        }
+        if (callCount == calls.length) {
+            calls = Arrays.copyOf(calls, callCount * 2);
+        }
+        calls[callCount++] = ((long) source << 32) | target;
+    }
+
+    public int getVertexCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Returns the symbol table attributes of the callable with the given id.
+     *
+     * @param id vertex id
+     * @return attributes of the callable
+     */
+    public Map<String, String> getVertex(int id) {
+        return vertices.get(id);
+    }
+
+    public int getEdgeCount() {
+        compact();
+        return edgeTargets.length;
+    }
+
+    /**
+     * Passes every edge to the given consumer, by source id and then target id.
+     *
+     * @param consumer edge consumer
+     */
+    public void forEachEdge(EdgeConsumer consumer) {
+        compact();
+        for (int source = 0; source < vertices.size(); source++) {
+            for (int edge = edgeOffsets[source]; edge < edgeOffsets[source + 1]; edge++) {
+                consumer.accept(source, edgeTargets[edge], edgeWeights[edge]);
+            }
+        }
+    }
+
+    /**
+     * Converts the graph to a JGraphT graph, e.g., to export it with the JGraphT exporters.
+     *
+     * @return JGraphT graph with one call edge per edge of this graph
+     */
+    public Graph<CallableVertex, AbstractGraphEdge> toGraph() {
+        Graph<CallableVertex, AbstractGraphEdge> graph = new DefaultDirectedGraph<>(AbstractGraphEdge.class);
+        CallableVertex[] callableVertices = new CallableVertex[vertices.size()];
+        for (int id = 0; id < callableVertices.length; id++) {
+            callableVertices[id] = new CallableVertex(vertices.get(id));
+            graph.addVertex(callableVertices[id]);
+        }
+        forEachEdge((source, target, weight) -> {
+            CallEdge edge = new CallEdge();
+            edge.weight = weight;
+            graph.addEdge(callableVertices[source], callableVertices[target], edge);
+        });
+        return graph;
+    }
+
+    /**
+     * Sorts the recorded calls and merges the calls between the same vertices into weighted CSR edges.
+     */
+    private void compact() {
+        if (edgeOffsets != null) {
+            return;
+        }
+        Arrays.sort(calls, 0, callCount);
+        int edgeCount = 0;
+        for (int i = 0; i < callCount; i++) {
+            if (i == 0 || calls[i] != calls[i - 1]) {
+                edgeCount++;
+            }
+        }
+        edgeOffsets = new int[vertices.size() + 1];
+        edgeTargets = new int[edgeCount];
+        edgeWeights = new int[edgeCount];
+        int edge = -1;
+        for (int i = 0; i < callCount; i++) {
+            if (i == 0 || calls[i] != calls[i - 1]) {
+                edge++;
+                edgeTargets[edge] = (int) calls[i];
+                edgeOffsets[(int) (calls[i] >>> 32) + 1]++;
+            }
+            edgeWeights[edge]++;
+        }
+        for (int vertex = 0; vertex < vertices.size(); vertex++) {
+            edgeOffsets[vertex + 1] += edgeOffsets[vertex];
+        }
+        calls = null;
+    }
+}
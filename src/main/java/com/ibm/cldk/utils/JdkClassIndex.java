@@ -0,0 +1,238 @@
+package com.ibm.cldk.utils;
+
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the classes of a Java runtime image and of the classes each of them refers to, persisted across runs.
+ *
+ * <p>
+ * Building the index reads every class of the runtime once, which takes seconds; the index is therefore stored in a
+ * cache directory, in a file named after a hash of the {@link JdkModules#getFingerprint() runtime fingerprint}, and
+ * reused by every later run on the same runtime. Given the classes that the analyzed classes refer to, the index
+ * yields the runtime classes they can reach through references, so that only those need to be loaded into the class
+ * hierarchy. A class that no reachable class refers to can be neither instantiated nor called by the analyzed code.
+ * </p>
+ */
+public class JdkClassIndex {
+
+    // Bump whenever the file format or the references recorded per class change
+    private static final int CACHE_FORMAT_VERSION = 1;
+
+    private final List<String> modules;
+    private final String[] classNames;
+    private final int[] classModules;
+    private final int[][] references;
+    private final Map<String, Integer> classIds;
+
+    JdkClassIndex(List<String> modules, String[] classNames, int[] classModules, int[][] references) {
+        this.modules = modules;
+        this.classNames = classNames;
+        this.classModules = classModules;
+        this.references = references;
+        this.classIds = new HashMap<>(classNames.length * 2);
+        for (int id = 0; id < classNames.length; id++) {
+            classIds.put(classNames[id], id);
+        }
+    }
+
+    /**
+     * Loads the index of the given runtime from the cache directory, building and storing it if it is not cached yet.
+     *
+     * @param cacheDirectory directory holding the cached indices; it is created if it does not exist
+     * @param jdk            modules of the runtime image
+     * @return index
+     * @throws IOException if the runtime image cannot be read
+     */
+    public static JdkClassIndex open(Path cacheDirectory, JdkModules jdk) throws IOException {
+        String fingerprint = jdk.getFingerprint();
+        Path indexFile = cacheDirectory.resolve(hash(fingerprint) + ".idx");
+        if (Files.exists(indexFile)) {
+            try {
+                JdkClassIndex index = read(indexFile, fingerprint);
+                if (index != null) {
+                    Log.info("Loaded the JDK class index from " + indexFile + ".");
+                    return index;
+                }
+            } catch (IOException e) {
+                Log.warn("Discarding unreadable JDK class index " + indexFile + ": " + e.getMessage());
+            }
+        }
+        long start = System.currentTimeMillis();
+        JdkClassIndex index = build(jdk);
+        Log.info("Indexed " + index.classNames.length + " JDK classes in "
+                + Math.ceil((double) (System.currentTimeMillis() - start) / 1000) + " seconds.");
+        try {
+            Files.createDirectories(cacheDirectory);
+            // Write to a temporary file first, so that concurrent runs never read a partial index
+            Path temporaryFile = cacheDirectory.resolve(indexFile.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+            index.write(temporaryFile, fingerprint);
+            Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Log.info("Saved the JDK class index to " + indexFile + ".");
+        } catch (IOException e) {
+            Log.warn("Could not save the JDK class index to " + cacheDirectory + ": " + e.getMessage());
+        }
+        return index;
+    }
+
+    public int getNumberOfClasses() {
+        return classNames.length;
+    }
+
+    /**
+     * Returns the runtime classes that the given classes refer to, directly or through other runtime classes, grouped
+     * by module. Superclasses and interfaces are references too, so the result is closed under supertypes.
+     *
+     * @param referencedClasses internal names of the classes the analyzed classes refer to; names that are not in the
+     *                          runtime image are ignored
+     * @return internal class names by module name
+     */
+    public Map<String, Set<String>> getReachableClasses(Set<String> referencedClasses) {
+        BitSet reached = new BitSet(classNames.length);
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (String className : referencedClasses) {
+            Integer id = classIds.get(className);
+            if (id != null && !reached.get(id)) {
+                reached.set(id);
+                pending.push(id);
+            }
+        }
+        while (!pending.isEmpty()) {
+            for (int reference : references[pending.pop()]) {
+                if (!reached.get(reference)) {
+                    reached.set(reference);
+                    pending.push(reference);
+                }
+            }
+        }
+        Map<String, Set<String>> reachableClasses = new TreeMap<>();
+        for (int id = reached.nextSetBit(0); id >= 0; id = reached.nextSetBit(id + 1)) {
+            reachableClasses.computeIfAbsent(modules.get(classModules[id]), module -> new HashSet<>()).add(classNames[id]);
+        }
+        return reachableClasses;
+    }
+
+    /**
+     * Builds the index by reading every class of the runtime image.
+     */
+    private static JdkClassIndex build(JdkModules jdk) throws IOException {
+        List<String> modules = new ArrayList<>(jdk.getModuleNames());
+        List<String> classNames = new ArrayList<>();
+        List<Integer> classModules = new ArrayList<>();
+        List<Set<String>> referencedClasses = new ArrayList<>();
+        for (int module = 0; module < modules.size(); module++) {
+            Iterator<? extends ModuleEntry> entries = jdk.getModule(modules.get(module)).getEntries();
+            while (entries.hasNext()) {
+                ModuleEntry entry = entries.next();
+                Set<String> referenced = new HashSet<>();
+                try (InputStream classFile = entry.getInputStream()) {
+                    JdkModules.addReferencedClasses(classFile.readAllBytes(), referenced);
+                } catch (InvalidClassFileException e) {
+                    Log.warn("Skipping invalid JDK class file " + entry + ": " + e.getMessage());
+                    continue;
+                }
+                classNames.add(entry.getClassName());
+                classModules.add(module);
+                referencedClasses.add(referenced);
+            }
+        }
+        Map<String, Integer> classIds = new HashMap<>(classNames.size() * 2);
+        for (int id = 0; id < classNames.size(); id++) {
+            classIds.put(classNames.get(id), id);
+        }
+        int[][] references = new int[classNames.size()][];
+        for (int id = 0; id < references.length; id++) {
+            references[id] = referencedClasses.get(id).stream()
+                    .map(classIds::get)
+                    .filter(reference -> reference != null)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return new JdkClassIndex(modules, classNames.toArray(new String[0]),
+                classModules.stream().mapToInt(Integer::intValue).toArray(), references);
+    }
+
+    /**
+     * Reads an index file, or returns null if it was written in another format or for another runtime.
+     */
+    static JdkClassIndex read(Path indexFile, String fingerprint) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != CACHE_FORMAT_VERSION || !fingerprint.equals(in.readUTF())) {
+                return null;
+            }
+            List<String> modules = new ArrayList<>();
+            for (int count = in.readInt(); count > 0; count--) {
+                modules.add(in.readUTF());
+            }
+            int classCount = in.readInt();
+            String[] classNames = new String[classCount];
+            int[] classModules = new int[classCount];
+            int[][] references = new int[classCount][];
+            for (int id = 0; id < classCount; id++) {
+                classNames[id] = in.readUTF();
+                classModules[id] = in.readInt();
+                references[id] = new int[in.readInt()];
+                for (int i = 0; i < references[id].length; i++) {
+                    references[id][i] = in.readInt();
+                }
+            }
+            return new JdkClassIndex(modules, classNames, classModules, references);
+        }
+    }
+
+    void write(Path indexFile, String fingerprint) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            out.writeInt(CACHE_FORMAT_VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(modules.size());
+            for (String module : modules) {
+                out.writeUTF(module);
+            }
+            out.writeInt(classNames.length);
+            for (int id = 0; id < classNames.length; id++) {
+                out.writeUTF(classNames[id]);
+                out.writeInt(classModules[id]);
+                out.writeInt(references[id].length);
+                for (int reference : references[id]) {
+                    out.writeInt(reference);
+                }
+            }
+        }
+    }
+
+    private static String hash(String fingerprint) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
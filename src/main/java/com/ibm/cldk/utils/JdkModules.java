@@ -0,0 +1,254 @@
+package com.ibm.cldk.utils;
+
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.shrike.shrikeCT.ClassConstants;
+import com.ibm.wala.shrike.shrikeCT.ClassReader;
+import com.ibm.wala.shrike.shrikeCT.ConstantPoolParser;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Modules of a Java runtime image, read through its {@code jrt:/} file system.
+ *
+ * <p>
+ * The {@code jrt:/} file system reads the classes from the {@code lib/modules} image of the runtime, which full JDKs
+ * and runtime images without a {@code jmods} directory both have. Class files are read when WALA loads them, and a
+ * module can be restricted to some of its classes, e.g., to the classes that the analyzed classes can reach according
+ * to a {@link JdkClassIndex}.
+ * </p>
+ */
+public class JdkModules {
+
+    private final FileSystem jrt;
+    private final Path javaHome;
+
+    private JdkModules(FileSystem jrt, Path javaHome) {
+        this.jrt = jrt;
+        this.javaHome = javaHome;
+    }
+
+    /**
+     * Opens the runtime image of the given Java home.
+     *
+     * @param javaHome Java home, e.g., the value of {@code JAVA_HOME}
+     * @return modules of the runtime image
+     * @throws IOException if the Java home has no runtime image
+     */
+    public static JdkModules open(String javaHome) throws IOException {
+        URI uri = URI.create("jrt:/");
+        Path home = Paths.get(javaHome).toRealPath();
+        if (home.equals(Paths.get(System.getProperty("java.home")).toRealPath())) {
+            return new JdkModules(FileSystems.getFileSystem(uri), home);
+        }
+        return new JdkModules(FileSystems.newFileSystem(uri, Map.of("java.home", javaHome)), home);
+    }
+
+    /**
+     * Returns a fingerprint of the runtime image, which changes whenever the runtime is replaced or updated.
+     *
+     * @return fingerprint made of the Java home and the size and modification time of its module image
+     * @throws IOException if the module image cannot be read
+     */
+    public String getFingerprint() throws IOException {
+        Path image = javaHome.resolve("lib").resolve("modules");
+        return javaHome + "|" + Files.size(image) + "|" + Files.getLastModifiedTime(image).toMillis();
+    }
+
+    /**
+     * Returns the names of all modules in the runtime image.
+     *
+     * @return module names
+     * @throws IOException if the runtime image cannot be read
+     */
+    public Set<String> getModuleNames() throws IOException {
+        try (Stream<Path> modules = Files.list(jrt.getPath("/modules"))) {
+            return modules.map(module -> module.getFileName().toString()).collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    /**
+     * Returns the module with the given name as a WALA module, whose entries are the class files of the module.
+     *
+     * @param moduleName module name
+     * @return WALA module
+     */
+    public Module getModule(String moduleName) {
+        return new JrtModule(jrt.getPath("/modules", moduleName), null);
+    }
+
+    /**
+     * Returns the module with the given name as a WALA module, whose entries are the class files of the given classes.
+     *
+     * @param moduleName module name
+     * @param classNames internal names of the classes to include, e.g., {@code java/lang/String}
+     * @return WALA module
+     */
+    public Module getModule(String moduleName, Set<String> classNames) {
+        return new JrtModule(jrt.getPath("/modules", moduleName), classNames);
+    }
+
+    /**
+     * Adds the classes that the given class file refers to: its supertypes, the owners of the methods it calls and the
+     * fields it accesses, and the types in the descriptors of its fields and methods, of the methods it calls and of
+     * its lambdas.
+     *
+     * @param classFile  contents of the class file
+     * @param classNames set to add the internal class names to, e.g., {@code java/sql/Connection}
+     * @throws InvalidClassFileException if the class file is malformed
+     */
+    public static void addReferencedClasses(byte[] classFile, Set<String> classNames)
+            throws InvalidClassFileException {
+        ConstantPoolParser constantPool = new ClassReader(classFile).getCP();
+        for (int i = 1; i < constantPool.getItemCount(); i++) {
+            byte itemType = constantPool.getItemType(i);
+            if (itemType == ClassConstants.CONSTANT_Class) {
+                // Array classes are named by their descriptor, e.g., [Ljava/lang/String;
+                String className = constantPool.getCPClass(i);
+                if (className.startsWith("[")) {
+                    addDescriptorClasses(className, classNames);
+                } else {
+                    classNames.add(className);
+                }
+            } else if (itemType == ClassConstants.CONSTANT_Utf8) {
+                String utf8 = constantPool.getCPUtf8(i);
+                if (utf8.startsWith("(") || utf8.startsWith("L") && utf8.endsWith(";")) {
+                    addDescriptorClasses(utf8, classNames);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the classes in the given field or method descriptor, e.g., {@code (ILjava/lang/String;)V}.
+     */
+    private static void addDescriptorClasses(String descriptor, Set<String> classNames) {
+        int i = 0;
+        while (i < descriptor.length()) {
+            if (descriptor.charAt(i) == 'L') {
+                int end = descriptor.indexOf(';', i);
+                if (end < 0) {
+                    return;
+                }
+                classNames.add(descriptor.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Class files of a module in the runtime image, optionally restricted to some classes.
+     */
+    private static class JrtModule implements Module {
+
+        private final Path root;
+        // Internal names of the classes to include, or null for all classes
+        private final Set<String> classNames;
+
+        JrtModule(Path root, Set<String> classNames) {
+            this.root = root;
+            this.classNames = classNames;
+        }
+
+        @Override
+        public Iterator<? extends ModuleEntry> getEntries() {
+            if (classNames != null) {
+                return classNames.stream()
+                        .map(className -> new JrtModuleEntry(this, className + ".class"))
+                        .iterator();
+            }
+            try (Stream<Path> files = Files.walk(root)) {
+                return files
+                        .filter(file -> file.toString().endsWith(".class") && !file.endsWith("module-info.class"))
+                        .map(file -> new JrtModuleEntry(this, root.relativize(file).toString()))
+                        .collect(Collectors.toList())
+                        .iterator();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "jrt:" + root;
+        }
+    }
+
+    private static class JrtModuleEntry implements ModuleEntry {
+
+        private final JrtModule module;
+        // Path of the class file in the module, e.g., java/lang/String.class
+        private final String name;
+
+        JrtModuleEntry(JrtModule module, String name) {
+            this.module = module;
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isClassFile() {
+            return true;
+        }
+
+        @Override
+        public boolean isSourceFile() {
+            return false;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            try {
+                return new ByteArrayInputStream(Files.readAllBytes(module.root.resolve(name)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean isModuleFile() {
+            return false;
+        }
+
+        @Override
+        public Module asModule() {
+            throw new UnsupportedOperationException("A class file is not a module");
+        }
+
+        @Override
+        public String getClassName() {
+            return name.substring(0, name.length() - ".class".length());
+        }
+
+        @Override
+        public Module getContainer() {
+            return module;
+        }
+
+        @Override
+        public String toString() {
+            return module + "/" + name;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.ibm.cldk.utils;
+
+import static com.ibm.cldk.CodeAnalyzer.gson;
+
+import com.google.gson.stream.JsonWriter;
+import com.ibm.cldk.entities.JavaCompilationUnit;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes the analysis output as newline-delimited JSON (NDJSON): one self-contained JSON object per line.
+ *
+ * <p>
+ * Every record uses the key under which its content appears in the single-document JSON output: a
+ * {@code {"version": ...}} record, one {@code {"symbol_table": {"<file path>": {...}}}} record per compilation
+ * unit, and one {@code {"call_graph": {...}}} record per call graph edge.
+ * </p>
+ *
+ * <p>
+ * Records are handed over to a dedicated writer thread through a bounded queue, so the analysis keeps producing
+ * records while earlier ones are serialized and written, and only a bounded number of records waits in memory. When
+ * the queue is full, the producer blocks until the writer thread catches up.
+ * </p>
+ */
+public class NDJSONWriter implements Closeable {
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final Record END_OF_OUTPUT = new Record(null, null, null, null);
+
+    private final Writer writer;
+    private final boolean closeWriter;
+    private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Creates a writer and starts its writer thread.
+     *
+     * @param writer writer to write the records to
+     * @param closeWriter whether {@link #close()} closes the given writer, or only flushes it (e.g., for stdout)
+     */
+    public NDJSONWriter(Writer writer, boolean closeWriter) {
+        this.writer = writer;
+        this.closeWriter = closeWriter;
+        this.writerThread = new Thread(this::drain, "ndjson-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public void writeVersion(String version) throws IOException {
+        enqueue(new Record("version", null, version, null));
+    }
+
+    public void writeCompilationUnit(String filePath, JavaCompilationUnit compilationUnit) throws IOException {
+        enqueue(new Record("symbol_table", filePath, compilationUnit, null));
+    }
+
+    public void writeCallGraphEdge(Object edge) throws IOException {
+        enqueue(new Record("call_graph", null, edge, null));
+    }
+
+    /**
+     * Writes a record that has already been serialized, e.g., one copied from an existing output file.
+     *
+     * @param line serialized record, without the line terminator
+     * @throws IOException if a previous record could not be written
+     */
+    public void writeLine(String line) throws IOException {
+        enqueue(new Record(null, null, null, line));
+    }
+
+    /**
+     * Waits for all records to be written and flushes (and, if requested at construction, closes) the underlying
+     * writer.
+     *
+     * @throws IOException if a record could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END_OF_OUTPUT);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing NDJSON output");
+        } finally {
+            if (closeWriter) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void enqueue(Record record) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("NDJSON writer is closed");
+        }
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing NDJSON output");
+        }
+    }
+
+    private void drain() {
+        try {
+            for (Record record = queue.take(); record != END_OF_OUTPUT; record = queue.take()) {
+                // After a failure, keep taking records so that producers never block on a full queue
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    write(record);
+                } catch (IOException | RuntimeException e) {
+                    failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                }
+            }
+            if (failure == null) {
+                writer.flush();
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Interrupted while writing NDJSON output");
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void write(Record record) throws IOException {
+        if (record.line != null) {
+            writer.write(record.line);
+        } else {
+            writeRecord(writer, record.section, record.key, record.value);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a single record, without a line terminator, as a compact JSON object of the form
+     * {@code {"<section>": value}}, or {@code {"<section>": {"<key>": value}}} if a key is given.
+     *
+     * @param writer writer to write the record to
+     * @param section top-level key of the record
+     * @param key key of the value within the section, or null
+     * @param value value to serialize
+     * @throws IOException if writing fails
+     */
+    static void writeRecord(Writer writer, String section, String key, Object value) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setHtmlSafe(false);
+        jsonWriter.setSerializeNulls(true);
+        jsonWriter.beginObject().name(section);
+        if (key != null) {
+            jsonWriter.beginObject().name(key);
+        }
+        gson.toJson(value, value.getClass(), jsonWriter);
+        if (key != null) {
+            jsonWriter.endObject();
+        }
+        jsonWriter.endObject();
+    }
+
+    private static final class Record {
+        private final String section;
+        private final String key;
+        private final Object value;
+        private final String line;
+
+        private Record(String section, String key, Object value, String line) {
+            this.section = section;
+            this.key = key;
+            this.value = value;
+            this.line = line;
+        }
+    }
+}
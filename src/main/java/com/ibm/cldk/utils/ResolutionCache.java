@@ -0,0 +1,190 @@
+package com.ibm.cldk.utils;
+
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.ThisExpr;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache of symbol resolution results for expressions and types.
+ *
+ * <p>
+ * Both successful and failed resolutions are cached. Entries are keyed by the source position of the resolved node
+ * within its compilation unit, so every pass over a callable body that resolves the same node reuses the first
+ * result. Expressions rooted at an unqualified {@code this}, such as {@code this.em}, are keyed by their enclosing
+ * class and their field access chain instead, so all occurrences within the class share a single entry.
+ * </p>
+ *
+ * <p>
+ * Entries are grouped by compilation unit and dropped with {@link #release(String)} once the unit has been
+ * processed, so the cache only holds entries for the units currently being processed.
+ * </p>
+ */
+public class ResolutionCache {
+
+    private final Map<String, Map<Key, String>> units = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Returns the cached resolution of the given node, computing and caching it with the given resolver on a miss.
+     *
+     * @param node node (expression or type) to resolve
+     * @param resolver resolver used on a cache miss
+     * @param <N> type of the node
+     * @return resolved name
+     */
+    public <N extends Node> String resolve(N node, Function<N, String> resolver) {
+        Key key = keyOf(node);
+        if (key == null) {
+            misses.increment();
+            return resolver.apply(node);
+        }
+        Map<Key, String> entries = units.computeIfAbsent(unitOf(node), unit -> new ConcurrentHashMap<>());
+        String resolved = entries.get(key);
+        if (resolved != null) {
+            hits.increment();
+            return resolved;
+        }
+        misses.increment();
+        resolved = resolver.apply(node);
+        entries.put(key, resolved);
+        return resolved;
+    }
+
+    /**
+     * Records that a resolution attempt failed.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Drops all entries of the given compilation unit.
+     *
+     * @param unit path of the compilation unit, as stored on the unit
+     */
+    public void release(String unit) {
+        units.remove(unit);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getHits() + " hits, " + getMisses() + " misses (" + getFailures() + " unresolved)";
+    }
+
+    private static String unitOf(Node node) {
+        return node.findCompilationUnit().flatMap(CompilationUnit::getStorage)
+                .map(storage -> storage.getPath().toString()).orElse("<in-memory>");
+    }
+
+    private static Key keyOf(Node node) {
+        String thisChain = thisChainOf(node);
+        if (thisChain != null) {
+            Optional<Node> enclosingClass = enclosingClassOf(node);
+            if (enclosingClass.isPresent() && enclosingClass.get().getRange().isPresent()) {
+                return new Key(enclosingClass.get().getRange().get(), thisChain);
+            }
+        }
+        return node.getRange().map(range -> new Key(range, node.getClass().getSimpleName())).orElse(null);
+    }
+
+    /**
+     * Returns the field access chain of an expression rooted at an unqualified {@code this} (e.g. "this.em"), or null
+     * if the expression is not of that form.
+     */
+    private static String thisChainOf(Node node) {
+        if (node instanceof ThisExpr) {
+            return ((ThisExpr) node).getTypeName().isPresent() ? null : "this";
+        }
+        if (node instanceof FieldAccessExpr) {
+            FieldAccessExpr fieldAccessExpr = (FieldAccessExpr) node;
+            if (fieldAccessExpr.getTypeArguments().isPresent()) {
+                return null;
+            }
+            String scopeChain = thisChainOf(fieldAccessExpr.getScope());
+            return scopeChain == null ? null : scopeChain + "." + fieldAccessExpr.getNameAsString();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the class an unqualified {@code this} refers to at the given node: the innermost type declaration,
+     * anonymous class body, or enum constant body whose members contain the node.
+     */
+    private static Optional<Node> enclosingClassOf(Node node) {
+        Node child = node;
+        Optional<Node> parent = node.getParentNode();
+        while (parent.isPresent()) {
+            Node candidate = parent.get();
+            if (candidate instanceof TypeDeclaration) {
+                return parent;
+            }
+            if (child instanceof BodyDeclaration && (candidate instanceof ObjectCreationExpr
+                    || candidate instanceof EnumConstantDeclaration)) {
+                return parent;
+            }
+            child = candidate;
+            parent = candidate.getParentNode();
+        }
+        return Optional.empty();
+    }
+
+    private static final class Key {
+        private final int beginLine;
+        private final int beginColumn;
+        private final int endLine;
+        private final int endColumn;
+        private final String discriminator;
+
+        private Key(Range range, String discriminator) {
+            this.beginLine = range.begin.line;
+            this.beginColumn = range.begin.column;
+            this.endLine = range.end.line;
+            this.endColumn = range.end.column;
+            this.discriminator = discriminator;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return beginLine == key.beginLine && beginColumn == key.beginColumn && endLine == key.endLine
+                    && endColumn == key.endColumn && discriminator.equals(key.discriminator);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(beginLine, beginColumn, endLine, endColumn, discriminator);
+        }
+    }
+}
@@ -13,28 +13,75 @@ limitations under the License.
 
 package com.ibm.cldk.utils;
 
+import static com.ibm.cldk.CodeAnalyzer.callGraphPackages;
+import static com.ibm.cldk.CodeAnalyzer.exclusionsFile;
+import static com.ibm.cldk.CodeAnalyzer.jdkCacheDirectory;
+import static com.ibm.cldk.CodeAnalyzer.jdkModules;
 import static com.ibm.cldk.utils.ProjectDirectoryScanner.jarFilesStream;
 
+import com.ibm.cldk.SymbolTable;
 import com.ibm.wala.cast.java.ipa.callgraph.JavaSourceAnalysisScope;
 import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.shrike.shrikeCT.ClassReader;
 import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
 import com.ibm.wala.types.ClassLoaderReference;
 import com.ibm.wala.util.config.FileOfClasses;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import org.apache.commons.io.FileUtils;
 
 public class ScopeUtils {
 
-  private static final String EXCLUSIONS = "";
+  /**
+   * Default exclusions, one regular expression per line on internal class names: desktop UI, media, scripting, CORBA
+   * and JDK tooling classes, which server-side applications do not call. Excluded classes are left out of the class
+   * hierarchy, and calls to them are not resolved.
+   */
+  private static final String EXCLUSIONS = String.join("\n",
+      "java\\/awt\\/.*",
+      "java\\/applet\\/.*",
+      "javax\\/swing\\/.*",
+      "javax\\/accessibility\\/.*",
+      "javax\\/imageio\\/.*",
+      "javax\\/print\\/.*",
+      "javax\\/sound\\/.*",
+      "javax\\/smartcardio\\/.*",
+      "javafx\\/.*",
+      "com\\/sun\\/javafx\\/.*",
+      "sun\\/awt\\/.*",
+      "sun\\/swing\\/.*",
+      "sun\\/java2d\\/.*",
+      "sun\\/font\\/.*",
+      "sun\\/print\\/.*",
+      "sun\\/applet\\/.*",
+      "com\\/sun\\/java\\/swing\\/.*",
+      "com\\/sun\\/media\\/.*",
+      "com\\/sun\\/imageio\\/.*",
+      "jdk\\/nashorn\\/.*",
+      "org\\/openjdk\\/nashorn\\/.*",
+      "org\\/omg\\/.*",
+      "com\\/sun\\/corba\\/.*",
+      "javax\\/rmi\\/CORBA\\/.*",
+      "com\\/sun\\/tools\\/.*",
+      "com\\/sun\\/jdi\\/.*",
+      "jdk\\/jshell\\/.*",
+      "jdk\\/javadoc\\/.*",
+      "jdk\\/jfr\\/.*") + "\n";
 
   /**
    * The Std libs.
@@ -62,34 +109,33 @@ public class ScopeUtils {
     AnalysisScope scope = new JavaSourceAnalysisScope();
     addDefaultExclusions(scope);
 
-    Log.info("Loading Java SE standard libs.");
-
     if (System.getenv("JAVA_HOME") == null) {
       Log.error("JAVA_HOME is not set.");
       throw new RuntimeException("JAVA_HOME is not set.");
     }
 
-    String[] stdlibs = Files.walk(Paths.get(System.getenv("JAVA_HOME"), "jmods"))
-        .filter(path -> path.toString().endsWith(".jmod"))
-        .map(path -> path.toAbsolutePath().toString())
-        .toArray(String[]::new);
-
-    for (String stdlib : stdlibs) {
-      scope.addToScope(ClassLoaderReference.Primordial, new JarFile(stdlib));
-    }
-    setStdLibs(stdlibs);
-
     // -------------------------------------
     // Add extra user provided JARS to scope
     // -------------------------------------
-    if (!(applicationDeps == null)) {
+    List<JarFile> extraLibJars = new ArrayList<>();
+    List<Path> extraLibJarPaths = null;
+    if (SymbolTable.dependencyClasspath != null) {
+      // --dependency-mode classpath: the jars stay where the build tool keeps them
+      Log.info("Loading the resolved dependency classpath.");
+      extraLibJarPaths = SymbolTable.dependencyClasspath;
+    } else if (applicationDeps != null) {
       Log.info("Loading user specified extra libs.");
-      Objects.requireNonNull(jarFilesStream(applicationDeps)).stream()
+      extraLibJarPaths = Objects.requireNonNull(jarFilesStream(applicationDeps));
+    }
+    if (extraLibJarPaths != null) {
+      extraLibJarPaths.stream()
           .forEach(
               extraLibJar -> {
                 Log.info("-> Adding dependency " + extraLibJar + " to javaee scope.");
                 try {
-                  scope.addToScope(ClassLoaderReference.Extension, new JarFile(extraLibJar.toAbsolutePath().toFile()));
+                  JarFile jarFile = new JarFile(extraLibJar.toAbsolutePath().toFile());
+                  scope.addToScope(ClassLoaderReference.Extension, jarFile);
+                  extraLibJars.add(jarFile);
                 } catch (IOException e) {
                   throw new RuntimeException(e);
                 }
@@ -110,23 +156,142 @@ public class ScopeUtils {
       throw new RuntimeException("No application classes found.");
     }
     Log.info("Adding application classes to scope.");
+    int[] libraryClassCount = {0};
     applicationClassFiles.forEach(
         applicationClassFile -> {
           try {
-            scope.addClassFileToScope(
-                ClassLoaderReference.Application, applicationClassFile.toFile());
-          } catch (InvalidClassFileException e) {
+            // classes outside the packages to analyze are library code
+            ClassLoaderReference loader = ClassLoaderReference.Application;
+            if (callGraphPackages != null && !isInPackages(applicationClassFile, callGraphPackages)) {
+              loader = ClassLoaderReference.Extension;
+              libraryClassCount[0]++;
+            }
+            scope.addClassFileToScope(loader, applicationClassFile.toFile());
+          } catch (InvalidClassFileException | IOException e) {
             throw new RuntimeException(e);
           }
         });
+    if (callGraphPackages != null) {
+      Log.info("Analyzing " + libraryClassCount[0] + " application classes outside of " + callGraphPackages
+          + " as library code.");
+    }
+
+    addJdkModules(scope, applicationClassFiles, extraLibJars);
 
     return scope;
   }
 
+  /**
+   * Adds the classes of the Java runtime in JAVA_HOME to the scope, read through its {@code jrt:/} file system. Unless
+   * {@code --jdk-modules all} is given, only the runtime classes that the application classes and the dependencies
+   * can reach through references are added, as the cached {@link JdkClassIndex} of the runtime finds them.
+   *
+   * @param scope                 the scope
+   * @param applicationClassFiles the application class files
+   * @param extraLibJars          the dependency jars
+   * @throws IOException if the runtime image or a class file cannot be read
+   */
+  private static void addJdkModules(AnalysisScope scope, List<Path> applicationClassFiles, List<JarFile> extraLibJars)
+      throws IOException {
+    Log.info("Loading Java SE standard libs.");
+    JdkModules jdk = JdkModules.open(System.getenv("JAVA_HOME"));
+    if ("all".equals(jdkModules)) {
+      Set<String> modules = jdk.getModuleNames();
+      Log.info("Adding all " + modules.size() + " JDK modules to scope.");
+      for (String module : modules) {
+        scope.addToScope(ClassLoaderReference.Primordial, jdk.getModule(module));
+      }
+      setStdLibs(modules.stream().map(module -> "jrt:/modules/" + module).toArray(String[]::new));
+      return;
+    }
+
+    Set<String> referencedClasses = new HashSet<>();
+    try {
+      for (Path applicationClassFile : applicationClassFiles) {
+        JdkModules.addReferencedClasses(Files.readAllBytes(applicationClassFile), referencedClasses);
+      }
+      for (JarFile extraLibJar : extraLibJars) {
+        for (JarEntry entry : Collections.list(extraLibJar.entries())) {
+          if (entry.getName().endsWith(".class")) {
+            try (InputStream classFile = extraLibJar.getInputStream(entry)) {
+              JdkModules.addReferencedClasses(classFile.readAllBytes(), referencedClasses);
+            }
+          }
+        }
+      }
+    } catch (InvalidClassFileException e) {
+      throw new RuntimeException(e);
+    }
+    JdkClassIndex index = openJdkClassIndex(jdk);
+    Map<String, Set<String>> reachableClasses = index.getReachableClasses(referencedClasses);
+    Log.info("Adding " + reachableClasses.values().stream().mapToInt(Set::size).sum() + " of "
+        + index.getNumberOfClasses() + " JDK classes from " + reachableClasses.size() + " modules to scope: "
+        + reachableClasses.keySet());
+    for (Map.Entry<String, Set<String>> module : reachableClasses.entrySet()) {
+      scope.addToScope(ClassLoaderReference.Primordial, jdk.getModule(module.getKey(), module.getValue()));
+    }
+    setStdLibs(reachableClasses.keySet().stream().map(module -> "jrt:/modules/" + module).toArray(String[]::new));
+  }
+
+  /**
+   * Builds the class index of the Java runtime in JAVA_HOME and stores it in the JDK cache, unless it is cached
+   * already, so that later analyses skip indexing the runtime.
+   *
+   * @throws IOException if the runtime image cannot be read
+   */
+  public static void warmJdkCache() throws IOException {
+    if (System.getenv("JAVA_HOME") == null) {
+      Log.error("JAVA_HOME is not set.");
+      throw new RuntimeException("JAVA_HOME is not set.");
+    }
+    JdkClassIndex index = openJdkClassIndex(JdkModules.open(System.getenv("JAVA_HOME")));
+    Log.done("The JDK cache holds the index of " + index.getNumberOfClasses() + " classes of "
+        + System.getenv("JAVA_HOME") + ".");
+  }
+
+  private static JdkClassIndex openJdkClassIndex(JdkModules jdk) throws IOException {
+    Path cacheDirectory = jdkCacheDirectory != null
+        ? Paths.get(jdkCacheDirectory)
+        : Paths.get(System.getProperty("user.home"), ".codeanalyzer", "jdk");
+    return JdkClassIndex.open(cacheDirectory, jdk);
+  }
+
+  /**
+   * Checks whether the class in the given class file belongs to one of the given packages or their subpackages.
+   *
+   * @param classFile   the class file
+   * @param packages    package prefixes, e.g. {@code com.example.orders}
+   * @return true if the class name starts with one of the package prefixes
+   */
+  private static boolean isInPackages(Path classFile, List<String> packages)
+      throws IOException, InvalidClassFileException {
+    String className = new ClassReader(Files.readAllBytes(classFile)).getName().replace('/', '.');
+    for (String packagePrefix : packages) {
+      String prefix = packagePrefix.strip();
+      if (className.startsWith(prefix) && (className.length() == prefix.length()
+          || className.charAt(prefix.length()) == '.' || prefix.endsWith("."))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sets the default exclusions, followed by the exclusions in the file given with {@code --exclusions}, if any.
+   *
+   * @param scope the scope
+   * @return the scope
+   * @throws IOException if the exclusions file cannot be read
+   */
   private static AnalysisScope addDefaultExclusions(AnalysisScope scope)
       throws IOException {
     Log.info("Add exclusions to scope.");
-    scope.setExclusions(new FileOfClasses(new ByteArrayInputStream(EXCLUSIONS.getBytes(StandardCharsets.UTF_8))));
+    String exclusions = EXCLUSIONS;
+    if (exclusionsFile != null) {
+      Log.info("Adding exclusions from " + exclusionsFile + ".");
+      exclusions += Files.readString(Paths.get(exclusionsFile));
+    }
+    scope.setExclusions(new FileOfClasses(new ByteArrayInputStream(exclusions.getBytes(StandardCharsets.UTF_8))));
     return scope;
   }
 
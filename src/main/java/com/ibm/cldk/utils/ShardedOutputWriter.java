@@ -0,0 +1,314 @@
+package com.ibm.cldk.utils;
+
+import static com.ibm.cldk.CodeAnalyzer.gson;
+
+import com.ibm.cldk.entities.JavaCompilationUnit;
+import com.ibm.cldk.entities.Type;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the analysis output as a set of shards plus a manifest, so that consumers can read the record of a single
+ * compilation unit without parsing the whole output.
+ *
+ * <p>
+ * Compilation units are written to NDJSON shard files under {@code shards/}, one shard per package or, if a shard
+ * size is given, one shard per that many compilation units. Every line of a shard is a
+ * {@code {"symbol_table": {"<file path>": {...}}}} record, as in the NDJSON output. Call graph edges are written to
+ * {@code call_graph.ndjson}, one {@code {"call_graph": {...}}} record per line.
+ * </p>
+ *
+ * <p>
+ * {@code manifest.json} maps the file path of every compilation unit to the shard, byte offset and byte length
+ * (including the line terminator) of its record, and maps every type name, and every callable as
+ * {@code <type name>.<signature>}, to the file path of the compilation unit that declares it.
+ * </p>
+ *
+ * <p>
+ * An incremental update rewrites only the shards that contain the updated compilation units, copying the other
+ * records of those shards byte for byte, and then rewrites the manifest.
+ * </p>
+ */
+public class ShardedOutputWriter {
+
+    public static final String MANIFEST_FILE_NAME = "manifest.json";
+
+    private static final String SHARDS_DIRECTORY = "shards";
+
+    private static final String SHARD_FILE_EXTENSION = ".ndjson";
+
+    private static final String CALL_GRAPH_FILE_NAME = "call_graph.ndjson";
+
+    private static final String DEFAULT_PACKAGE_SHARD = "_default";
+
+    private final Path outputDirectory;
+
+    private final int shardSize;
+
+    /**
+     * Creates a writer for the given output directory.
+     *
+     * @param outputDirectory directory to write the shards and the manifest to
+     * @param shardSize number of compilation units per shard, or 0 for one shard per package
+     */
+    public ShardedOutputWriter(Path outputDirectory, int shardSize) {
+        this.outputDirectory = outputDirectory;
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * Returns whether the output directory holds a sharded output that can be updated incrementally.
+     */
+    public boolean hasManifest() {
+        return Files.exists(outputDirectory.resolve(MANIFEST_FILE_NAME));
+    }
+
+    /**
+     * Writes the given symbol table and call graph, replacing any sharded output in the output directory.
+     *
+     * @param symbolTable symbol table to write
+     * @param callGraph call graph edges to write, or null if no call graph was constructed
+     * @param version version of the analyzer
+     * @throws IOException if writing fails
+     */
+    public void write(Map<String, JavaCompilationUnit> symbolTable, List<?> callGraph, String version)
+            throws IOException {
+        Path shardsDirectory = outputDirectory.resolve(SHARDS_DIRECTORY);
+        Files.createDirectories(shardsDirectory);
+        try (DirectoryStream<Path> staleShards = Files.newDirectoryStream(shardsDirectory,
+                "*" + SHARD_FILE_EXTENSION)) {
+            for (Path staleShard : staleShards) {
+                Files.delete(staleShard);
+            }
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.version = version;
+        manifest.shardSize = shardSize;
+
+        // Group the compilation units by shard, keeping the symbol table order within every shard
+        Map<String, List<ShardRecord>> shards = new LinkedHashMap<>();
+        int index = 0;
+        for (Map.Entry<String, JavaCompilationUnit> compilationUnit : symbolTable.entrySet()) {
+            String shard = shardSize > 0 ? sizedShard(index++ / shardSize) : packageShard(compilationUnit.getValue());
+            shards.computeIfAbsent(shard, s -> new ArrayList<>())
+                    .add(new ShardRecord(compilationUnit.getKey(), compilationUnit.getValue(), null));
+        }
+        for (Map.Entry<String, List<ShardRecord>> shard : shards.entrySet()) {
+            writeShard(manifest, shard.getKey(), shard.getValue());
+        }
+
+        Files.deleteIfExists(outputDirectory.resolve(CALL_GRAPH_FILE_NAME));
+        if (callGraph != null) {
+            try (Writer writer = Files.newBufferedWriter(outputDirectory.resolve(CALL_GRAPH_FILE_NAME),
+                    StandardCharsets.UTF_8)) {
+                for (Object edge : callGraph) {
+                    NDJSONWriter.writeRecord(writer, "call_graph", null, edge);
+                    writer.write('\n');
+                }
+            }
+            manifest.callGraph = CALL_GRAPH_FILE_NAME;
+        }
+        writeManifest(manifest);
+        Log.done("Analysis output saved at " + outputDirectory + " in " + shards.size() + " shards");
+    }
+
+    /**
+     * Updates the existing sharded output with the given compilation units, rewriting only the shards that hold
+     * them. Compilation units that are not in the output yet are added to the shard of their package, or to the last
+     * shard if it is not full; with one shard per package, a compilation unit whose package changed moves to the shard
+     * of its new package, and a shard left empty is deleted. The call graph of the existing output is kept.
+     *
+     * @param compilationUnits updated compilation units, by file path
+     * @param version version of the analyzer
+     * @throws IOException if reading the existing output or writing fails
+     */
+    public void update(Map<String, JavaCompilationUnit> compilationUnits, String version) throws IOException {
+        Manifest manifest = readManifest();
+        manifest.version = version;
+        manifest.types.values().removeIf(compilationUnits::containsKey);
+        manifest.callables.values().removeIf(compilationUnits::containsKey);
+
+        // Find the shards to rewrite, and the shards to add new compilation units to
+        Map<String, Integer> shardSizes = new HashMap<>();
+        manifest.compilationUnits.values().forEach(location -> shardSizes.merge(location.shard, 1, Integer::sum));
+        Set<String> affectedShards = new LinkedHashSet<>();
+        Map<String, List<ShardRecord>> addedRecords = new HashMap<>();
+        for (Map.Entry<String, JavaCompilationUnit> compilationUnit : compilationUnits.entrySet()) {
+            Location location = manifest.compilationUnits.get(compilationUnit.getKey());
+            if (location != null) {
+                affectedShards.add(location.shard);
+                if (manifest.shardSize > 0 || location.shard.equals(packageShard(compilationUnit.getValue()))) {
+                    continue;
+                }
+                // The package changed: the compilation unit moves from its shard to the shard of its new package
+                manifest.compilationUnits.remove(compilationUnit.getKey());
+            }
+            String shard;
+            if (manifest.shardSize > 0) {
+                int lastShard = Math.max(shardSizes.size() - 1, 0);
+                shard = shardSizes.getOrDefault(sizedShard(lastShard), 0) < manifest.shardSize
+                        ? sizedShard(lastShard) : sizedShard(lastShard + 1);
+            } else {
+                shard = packageShard(compilationUnit.getValue());
+            }
+            shardSizes.merge(shard, 1, Integer::sum);
+            affectedShards.add(shard);
+            addedRecords.computeIfAbsent(shard, s -> new ArrayList<>())
+                    .add(new ShardRecord(compilationUnit.getKey(), compilationUnit.getValue(), null));
+        }
+
+        Files.createDirectories(outputDirectory.resolve(SHARDS_DIRECTORY));
+        for (String shard : affectedShards) {
+            List<ShardRecord> records = manifest.compilationUnits.entrySet().stream()
+                    .filter(entry -> entry.getValue().shard.equals(shard))
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().offset))
+                    .map(entry -> new ShardRecord(entry.getKey(), compilationUnits.get(entry.getKey()),
+                            entry.getValue()))
+                    .collect(Collectors.toList());
+            records.addAll(addedRecords.getOrDefault(shard, new ArrayList<>()));
+            if (records.isEmpty()) {
+                Files.deleteIfExists(outputDirectory.resolve(shard));
+            } else {
+                writeShard(manifest, shard, records);
+            }
+        }
+        writeManifest(manifest);
+        Log.done("Analysis output at " + outputDirectory + " updated; rewrote " + affectedShards.size()
+                + " shards");
+    }
+
+    /**
+     * Writes a shard, serializing the records that carry a compilation unit and copying the others from the
+     * previous version of the shard, and records the locations of all records in the manifest.
+     */
+    private void writeShard(Manifest manifest, String shard, List<ShardRecord> records) throws IOException {
+        Path shardFile = outputDirectory.resolve(shard);
+        Path temporaryFile = shardFile.resolveSibling(shardFile.getFileName() + ".tmp");
+        long offset = 0;
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile));
+                RandomAccessFile previousShard = Files.exists(shardFile)
+                        ? new RandomAccessFile(shardFile.toFile(), "r")
+                        : null) {
+            for (ShardRecord record : records) {
+                byte[] bytes;
+                if (record.compilationUnit != null) {
+                    StringWriter line = new StringWriter();
+                    NDJSONWriter.writeRecord(line, "symbol_table", record.filePath, record.compilationUnit);
+                    line.write('\n');
+                    bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                    index(manifest, record.filePath, record.compilationUnit);
+                } else {
+                    bytes = new byte[(int) record.previousLocation.length];
+                    previousShard.seek(record.previousLocation.offset);
+                    previousShard.readFully(bytes);
+                }
+                outputStream.write(bytes);
+                manifest.compilationUnits.put(record.filePath, new Location(shard, offset, bytes.length));
+                offset += bytes.length;
+            }
+        }
+        Files.move(temporaryFile, shardFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void index(Manifest manifest, String filePath, JavaCompilationUnit compilationUnit) {
+        if (compilationUnit.getTypeDeclarations() == null) {
+            return;
+        }
+        for (Map.Entry<String, Type> type : compilationUnit.getTypeDeclarations().entrySet()) {
+            manifest.types.put(type.getKey(), filePath);
+            for (String signature : type.getValue().getCallableDeclarations().keySet()) {
+                manifest.callables.put(type.getKey() + "." + signature, filePath);
+            }
+        }
+    }
+
+    private Manifest readManifest() throws IOException {
+        try (Reader reader = Files.newBufferedReader(outputDirectory.resolve(MANIFEST_FILE_NAME),
+                StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, Manifest.class);
+        }
+    }
+
+    private void writeManifest(Manifest manifest) throws IOException {
+        Path manifestFile = outputDirectory.resolve(MANIFEST_FILE_NAME);
+        Path temporaryFile = manifestFile.resolveSibling(MANIFEST_FILE_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+            gson.toJson(manifest, writer);
+        }
+        Files.move(temporaryFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the shard, as a path relative to the output directory, that holds the compilation units of the package
+     * of the given compilation unit.
+     */
+    private static String packageShard(JavaCompilationUnit compilationUnit) {
+        String packageName = compilationUnit.getPackageName();
+        return SHARDS_DIRECTORY + "/" + (packageName == null || packageName.isEmpty() ? DEFAULT_PACKAGE_SHARD
+                : packageName) + SHARD_FILE_EXTENSION;
+    }
+
+    /**
+     * Returns the shard, as a path relative to the output directory, with the given index.
+     */
+    private static String sizedShard(int index) {
+        return SHARDS_DIRECTORY + "/" + String.format("shard-%05d", index) + SHARD_FILE_EXTENSION;
+    }
+
+    private static final class Manifest {
+        private String version;
+        private int shardSize;
+        private String callGraph;
+        private Map<String, Location> compilationUnits = new LinkedHashMap<>();
+        private Map<String, String> types = new LinkedHashMap<>();
+        private Map<String, String> callables = new LinkedHashMap<>();
+    }
+
+    private static final class Location {
+        private final String shard;
+        private final long offset;
+        private final long length;
+
+        private Location(String shard, long offset, long length) {
+            this.shard = shard;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A record to write to a shard: either a compilation unit to serialize, or the location of a record to copy
+     * from the previous version of the shard.
+     */
+    private static final class ShardRecord {
+        private final String filePath;
+        private final JavaCompilationUnit compilationUnit;
+        private final Location previousLocation;
+
+        private ShardRecord(String filePath, JavaCompilationUnit compilationUnit, Location previousLocation) {
+            this.filePath = filePath;
+            this.compilationUnit = compilationUnit;
+            this.previousLocation = previousLocation;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ibm.cldk.utils;
+
+import com.github.javaparser.Range;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Original text of a source file, sliced by node range.
+ *
+ * <p>
+ * For an unmodified AST, slicing the source by the range of a node yields the same text as printing the node with
+ * JavaParser's {@code LexicalPreservingPrinter}, without attaching a token-level preservation layer to the AST. The
+ * text of a file is read from a memory-mapped buffer and only the lines of a requested range are decoded. Line
+ * numbers and columns follow JavaParser: {@code \n}, {@code \r\n} and {@code \r} end lines, and columns count UTF-16
+ * code units, with a tab counting as one column.
+ * </p>
+ */
+public class SourceText {
+
+    private final ByteBuffer buffer;
+    private final Charset charset;
+    // Offsets of the first byte of every line, followed by the length of the buffer
+    private final int[] lineOffsets;
+
+    private SourceText(ByteBuffer buffer, Charset charset) {
+        this.buffer = buffer;
+        this.charset = charset;
+        this.lineOffsets = indexLines(buffer);
+    }
+
+    /**
+     * Maps the given source file into memory.
+     *
+     * @param sourceFile source file
+     * @param charset encoding of the source file
+     * @return source text
+     * @throws IOException if the file cannot be mapped
+     */
+    public static SourceText map(Path sourceFile, Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(sourceFile, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new SourceText(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), charset);
+        }
+    }
+
+    /**
+     * Loads the content of a memory-mapped source file into physical memory, so that parsing and slicing it do not
+     * have to wait for the file to be read.
+     *
+     * @return this source text
+     */
+    public SourceText load() {
+        if (buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) buffer).load();
+        }
+        return this;
+    }
+
+    /**
+     * Returns a stream of the bytes of the source, e.g., to parse it from.
+     *
+     * @return input stream
+     */
+    public InputStream openStream() {
+        ByteBuffer content = buffer.duplicate();
+        content.rewind();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return content.hasRemaining() ? content.get() & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!content.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, content.remaining());
+                content.get(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return content.remaining();
+            }
+        };
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Wraps source code that is held in memory.
+     *
+     * @param code source code
+     * @return source text
+     */
+    public static SourceText of(String code) {
+        return new SourceText(ByteBuffer.wrap(code.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the text of the given range, both ends included.
+     *
+     * @param range range of a node of the AST parsed from this source
+     * @return text of the range
+     */
+    public String slice(Range range) {
+        int beginLine = Math.max(range.begin.line, 1);
+        int endLine = Math.min(range.end.line, lineOffsets.length - 1);
+        // decode whole lines, as columns count characters rather than bytes
+        String leadingLines = decode(lineOffsets[beginLine - 1], lineOffsets[endLine - 1]);
+        String lastLine = decode(lineOffsets[endLine - 1], lineOffsets[endLine]);
+        return (leadingLines + lastLine).substring(range.begin.column - 1,
+                leadingLines.length() + Math.min(range.end.column, lastLine.length()));
+    }
+
+    private String decode(int from, int to) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(from).limit(to);
+        return charset.decode(slice).toString();
+    }
+
+    private static int[] indexLines(ByteBuffer buffer) {
+        int[] lineOffsets = new int[64];
+        int lines = 1;
+        int length = buffer.limit();
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || (b == '\r' && (i + 1 == length || buffer.get(i + 1) != '\n'))) {
+                if (lines == lineOffsets.length) {
+                    lineOffsets = Arrays.copyOf(lineOffsets, lines * 2);
+                }
+                lineOffsets[lines++] = i + 1;
+            }
+        }
+        lineOffsets = Arrays.copyOf(lineOffsets, lines + 1);
+        lineOffsets[lines] = length;
+        return lineOffsets;
+    }
+}
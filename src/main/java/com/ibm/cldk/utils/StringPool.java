@@ -0,0 +1,81 @@
+package com.ibm.cldk.utils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared pool of the strings and string lists that recur throughout the symbol table, such as type names, method
+ * names, modifiers and annotations.
+ *
+ * <p>
+ * The entities store the canonical instance of each such value, so that, e.g., the type name
+ * {@code java.lang.String} or the modifier list {@code [public, static]} is held once instead of once per call site
+ * or callable. Pooled lists are immutable; a canonical modifier or annotation list takes the place of a per-entity
+ * flag set while keeping the serialized form unchanged. Code, comments and expressions are mostly unique and are not
+ * pooled.
+ * </p>
+ *
+ * <p>
+ * The pool is safe to use from multiple threads. It lives for one extraction: {@link com.ibm.cldk.CodeAnalyzer} clears it once the
+ * analysis output has been written.
+ * </p>
+ */
+public final class StringPool {
+
+    private static final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<List<String>, List<String>> lists = new ConcurrentHashMap<>();
+
+    private StringPool() {
+    }
+
+    /**
+     * Returns the canonical instance of the given string.
+     *
+     * @param string string to pool, or null
+     * @return canonical instance, or null if the string is null
+     */
+    public static String intern(String string) {
+        if (string == null) {
+            return null;
+        }
+        String canonical = strings.putIfAbsent(string, string);
+        return canonical != null ? canonical : string;
+    }
+
+    /**
+     * Returns the canonical immutable instance of the given list, made of canonical strings.
+     *
+     * @param list list to pool, or null
+     * @return canonical instance, or the given list if it is null or contains null elements
+     */
+    public static List<String> intern(List<String> list) {
+        if (list == null) {
+            return null;
+        }
+        // immutable lists throw on contains(null)
+        for (String element : list) {
+            if (element == null) {
+                return list;
+            }
+        }
+        List<String> canonical = lists.get(list);
+        if (canonical != null) {
+            return canonical;
+        }
+        String[] elements = new String[list.size()];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = intern(list.get(i));
+        }
+        canonical = List.of(elements);
+        List<String> pooled = lists.putIfAbsent(canonical, canonical);
+        return pooled != null ? pooled : canonical;
+    }
+
+    /**
+     * Empties the pool. Entities keep the instances they hold.
+     */
+    public static void clear() {
+        strings.clear();
+        lists.clear();
+    }
+}
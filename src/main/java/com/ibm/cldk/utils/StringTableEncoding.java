@@ -0,0 +1,238 @@
+package com.ibm.cldk.utils;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact encoding of the analysis output with a shared string table.
+ *
+ * <p>
+ * Every string value is written once to the string table and replaced by its index in the table, so that the type
+ * names, signatures and file paths that recur throughout the symbol table and the call graph are written once. Object
+ * keys, such as file paths in the symbol table and type names in type declarations, and enum constants, such as CRUD
+ * operation types, are written as they are. Fields
+ * that hold the value they are initialized to, e.g., a line number of 0 or an empty list, are omitted: a missing field
+ * is read back as that value.
+ * </p>
+ *
+ * <p>
+ * The string table precedes the references to it, so that readers can resolve references as they stream through the
+ * output. To write the output without holding it in memory, the strings are collected by serializing the output once
+ * to a writer that discards it, and the table is then written ahead of the output serialized a second time.
+ * </p>
+ */
+public class StringTableEncoding {
+
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Gson gson;
+
+    public StringTableEncoding() {
+        this.gson = new GsonBuilder()
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .disableHtmlEscaping()
+                .registerTypeAdapterFactory(new EncodingAdapterFactory())
+                .create();
+    }
+
+    /**
+     * Returns the Gson instance that writes values in this encoding, adding the strings it writes to the string table.
+     *
+     * @return Gson instance
+     */
+    public Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * Writes the string table as a JSON array.
+     *
+     * @param jsonWriter JSON writer
+     * @throws IOException if writing fails
+     */
+    public void writeStrings(JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginArray();
+        for (String string : strings) {
+            jsonWriter.value(string);
+        }
+        jsonWriter.endArray();
+    }
+
+    /**
+     * Reads a string table written by {@link #writeStrings(JsonWriter)}, so that {@link #getGson()} can read values
+     * that refer to it.
+     *
+     * @param jsonReader JSON reader
+     * @throws IOException if reading fails
+     */
+    public void readStrings(JsonReader jsonReader) throws IOException {
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            indexOf(jsonReader.nextString());
+        }
+        jsonReader.endArray();
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    private int indexOf(String string) {
+        Integer index = indices.get(string);
+        if (index == null) {
+            index = strings.size();
+            indices.put(string, index);
+            strings.add(string);
+        }
+        return index;
+    }
+
+    /**
+     * Replaces strings by their index in the string table and leaves out the fields of objects that hold their
+     * default values.
+     */
+    private class EncodingAdapterFactory implements TypeAdapterFactory {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> rawType = type.getRawType();
+            if (rawType == String.class) {
+                return (TypeAdapter<T>) new StringReferenceAdapter();
+            }
+            Object defaultInstance = newDefaultInstance(rawType);
+            if (defaultInstance == null) {
+                return null;
+            }
+            return new DefaultOmittingAdapter<>(gson.getDelegateAdapter(this, type),
+                    gson.getAdapter(JsonElement.class), defaultValues(rawType, defaultInstance));
+        }
+    }
+
+    /**
+     * Creates an instance of the given class with its no-argument constructor, so that its fields hold their default
+     * values, or returns null for JDK classes and classes that Gson would instantiate without running their field
+     * initializers.
+     */
+    private static Object newDefaultInstance(Class<?> rawType) {
+        if (rawType.isPrimitive() || rawType.isArray() || rawType.isEnum() || rawType.isInterface()
+                || Modifier.isAbstract(rawType.getModifiers()) || rawType.getName().startsWith("java.")) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = rawType.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the fields that Gson serializes for the given class, including inherited ones, by their JSON name, with
+     * their values in the given default instance.
+     */
+    private static Map<String, Map.Entry<Field, Object>> defaultValues(Class<?> rawType, Object defaultInstance) {
+        Map<String, Map.Entry<Field, Object>> defaultValues = new HashMap<>();
+        for (Class<?> declaringClass = rawType; declaringClass != Object.class; declaringClass = declaringClass.getSuperclass()) {
+            for (Field field : declaringClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                        || field.isSynthetic()) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    defaultValues.putIfAbsent(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES.translateName(field),
+                            new AbstractMap.SimpleEntry<>(field, field.get(defaultInstance)));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    // not omitted
+                }
+            }
+        }
+        return defaultValues;
+    }
+
+    private class StringReferenceAdapter extends TypeAdapter<String> {
+
+        @Override
+        public void write(JsonWriter out, String value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(indexOf(value));
+            }
+        }
+
+        @Override
+        public String read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            // object keys are read as values too, and are written as they are
+            return in.peek() == JsonToken.STRING ? in.nextString() : strings.get(in.nextInt());
+        }
+    }
+
+    private static class DefaultOmittingAdapter<T> extends TypeAdapter<T> {
+
+        private final TypeAdapter<T> delegate;
+        private final TypeAdapter<JsonElement> elementAdapter;
+        private final Map<String, Map.Entry<Field, Object>> defaultValues;
+
+        DefaultOmittingAdapter(TypeAdapter<T> delegate, TypeAdapter<JsonElement> elementAdapter,
+                Map<String, Map.Entry<Field, Object>> defaultValues) {
+            this.delegate = delegate;
+            this.elementAdapter = elementAdapter;
+            this.defaultValues = defaultValues;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            JsonElement element = delegate.toJsonTree(value);
+            if (element.isJsonObject()) {
+                JsonObject object = element.getAsJsonObject();
+                for (Map.Entry<String, Map.Entry<Field, Object>> defaultValue : defaultValues.entrySet()) {
+                    try {
+                        Object fieldValue = defaultValue.getValue().getKey().get(value);
+                        if (Objects.equals(fieldValue, defaultValue.getValue().getValue())) {
+                            object.remove(defaultValue.getKey());
+                        }
+                    } catch (IllegalAccessException e) {
+                        // written as it is
+                    }
+                }
+            }
+            elementAdapter.write(out, element);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            // the instance is created with its no-argument constructor, so that missing fields keep their defaults
+            return delegate.read(in);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.ibm.cldk.utils;
+
+import static com.ibm.cldk.CodeAnalyzer.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.stream.JsonWriter;
+import com.ibm.cldk.SymbolTable;
+import com.ibm.cldk.entities.JavaCompilationUnit;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of extracted compilation units, so that an analysis run only re-processes the source files that
+ * changed since the previous run.
+ *
+ * <p>
+ * Every compilation unit is stored in its own file, keyed by the path and the SHA-256 hash of the content of its
+ * source file. All entries are tied to a fingerprint of the dependency classpath (the jar files in the project, as
+ * the symbol solver finds them, and the resolved classpath of {@code --dependency-mode classpath}) and of the
+ * projection of computed facts; when the fingerprint changes, the whole cache is dropped. To avoid hashing unchanged
+ * files on every run, the cache index remembers the modification time, size and hash of every source file, and
+ * reuses the hash if the modification time and size are unchanged.
+ * </p>
+ *
+ * <p>
+ * Note that an entry only depends on its own source file and on the classpath. If a declaration changes in one
+ * source file, type resolutions in unchanged files that refer to it are not recomputed until those files change too.
+ * </p>
+ *
+ * <p>
+ * The cache is safe to use from multiple threads.
+ * </p>
+ */
+public class SymbolTableCache {
+
+    // Bump whenever the serialized form of the symbol table changes
+    private static final String CACHE_FORMAT_VERSION = "1";
+
+    private static final String INDEX_FILE_NAME = "index.json";
+
+    private static final String ENTRIES_DIRECTORY = "entries";
+
+    // Record default values are stored as Object; keep numbers exactly as written instead of turning them into doubles
+    private static final Gson cacheGson = gson.newBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LAZILY_PARSED_NUMBER).create();
+
+    private final Path cacheDirectory;
+    private final Index index;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hashedFiles = new LongAdder();
+
+    private SymbolTableCache(Path cacheDirectory, Index index) {
+        this.cacheDirectory = cacheDirectory;
+        this.index = index;
+    }
+
+    /**
+     * Opens the cache in the given directory for the given project, dropping all entries if the dependency classpath
+     * of the project or the projection has changed since the cache was last saved.
+     *
+     * @param cacheDirectory directory holding the cache; it is created if it does not exist
+     * @param projectRootPath root path of the project the cache is for
+     * @param projection projection of the facts computed for the cached compilation units
+     * @return cache
+     * @throws IOException if the cache cannot be read or created
+     */
+    public static SymbolTableCache open(Path cacheDirectory, Path projectRootPath, FactProjection projection)
+            throws IOException {
+        String fingerprint = fingerprint(projectRootPath, projection);
+        Index index = null;
+        Path indexFile = cacheDirectory.resolve(INDEX_FILE_NAME);
+        if (Files.exists(indexFile)) {
+            try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                index = cacheGson.fromJson(reader, Index.class);
+            } catch (JsonParseException e) {
+                Log.warn("Discarding unreadable symbol table cache index: " + e.getMessage());
+            }
+        }
+        if (index == null || !fingerprint.equals(index.fingerprint)) {
+            if (index != null) {
+                Log.info("Dependency classpath or projection changed; discarding symbol table cache.");
+            }
+            deleteEntries(cacheDirectory.resolve(ENTRIES_DIRECTORY));
+            index = new Index();
+            index.fingerprint = fingerprint;
+        } else {
+            // Gson deserializes the map as a LinkedTreeMap
+            index.files = new ConcurrentHashMap<>(index.files);
+        }
+        Files.createDirectories(cacheDirectory.resolve(ENTRIES_DIRECTORY));
+        return new SymbolTableCache(cacheDirectory, index);
+    }
+
+    /**
+     * Returns the cached compilation unit of the given source file if the file is unchanged since it was cached.
+     *
+     * @param sourceFile source file
+     * @return cached compilation unit, or null if there is none
+     * @throws IOException if the source file cannot be read
+     */
+    public JavaCompilationUnit get(Path sourceFile) throws IOException {
+        FileState fileState = getFileState(sourceFile);
+        Path entry = getEntry(sourceFile, fileState.hash);
+        if (Files.exists(entry)) {
+            try (Reader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+                JavaCompilationUnit compilationUnit = cacheGson.fromJson(reader, JavaCompilationUnit.class);
+                if (compilationUnit != null) {
+                    hits.increment();
+                    return compilationUnit;
+                }
+            } catch (JsonParseException e) {
+                Log.warn("Discarding unreadable symbol table cache entry for " + sourceFile + ": " + e.getMessage());
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the compilation unit extracted from the given source file.
+     *
+     * @param sourceFile source file
+     * @param compilationUnit compilation unit extracted from the source file
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(Path sourceFile, JavaCompilationUnit compilationUnit) throws IOException {
+        Path entry = getEntry(sourceFile, getFileState(sourceFile).hash);
+        Path temporaryFile = Files.createTempFile(entry.getParent(), "entry", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+            JsonWriter jsonWriter = new JsonWriter(writer);
+            jsonWriter.setHtmlSafe(false);
+            jsonWriter.setSerializeNulls(true);
+            cacheGson.toJson(compilationUnit, JavaCompilationUnit.class, jsonWriter);
+        }
+        Files.move(temporaryFile, entry, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Saves the cache index. Entries of source files whose content changed, or that no longer exist, are deleted.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    public void save() throws IOException {
+        for (Map.Entry<String, FileState> file : index.files.entrySet()) {
+            if (!Files.exists(Path.of(file.getKey()))) {
+                Files.deleteIfExists(getEntry(Path.of(file.getKey()), file.getValue().hash));
+                index.files.remove(file.getKey());
+            }
+        }
+        Path indexFile = cacheDirectory.resolve(INDEX_FILE_NAME);
+        Path temporaryFile = cacheDirectory.resolve(INDEX_FILE_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+            cacheGson.toJson(index, writer);
+        }
+        Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getHits() + " hits, " + getMisses() + " misses (" + hashedFiles.sum() + " files hashed)";
+    }
+
+    /**
+     * Returns the state of the given source file, hashing its content only if its modification time or size differ
+     * from the indexed state. If the content changed, the entry of the previous content is deleted.
+     */
+    private FileState getFileState(Path sourceFile) throws IOException {
+        String key = sourceFile.toAbsolutePath().normalize().toString();
+        BasicFileAttributes attributes = Files.readAttributes(sourceFile, BasicFileAttributes.class);
+        long modifiedTime = attributes.lastModifiedTime().toMillis();
+        FileState indexedState = index.files.get(key);
+        if (indexedState != null && indexedState.modifiedTime == modifiedTime
+                && indexedState.size == attributes.size()) {
+            return indexedState;
+        }
+        FileState fileState = new FileState();
+        fileState.modifiedTime = modifiedTime;
+        fileState.size = attributes.size();
+        fileState.hash = sha256(Files.readAllBytes(sourceFile));
+        hashedFiles.increment();
+        FileState previousState = index.files.put(key, fileState);
+        if (previousState != null && !previousState.hash.equals(fileState.hash)) {
+            Files.deleteIfExists(getEntry(sourceFile, previousState.hash));
+        }
+        return fileState;
+    }
+
+    private Path getEntry(Path sourceFile, String hash) {
+        String path = sourceFile.toAbsolutePath().normalize().toString();
+        return cacheDirectory.resolve(ENTRIES_DIRECTORY)
+                .resolve(sha256((path + "\0" + hash).getBytes(StandardCharsets.UTF_8)) + ".json");
+    }
+
+    /**
+     * Computes a fingerprint of the projection and of the jar files in the given project, walking the project the way
+     * the symbol solver collects its jar type solvers, and on the resolved dependency classpath, if any. The
+     * downloaded library dependencies are copied afresh on every run, so they are fingerprinted by file name and size
+     * instead of by path and modification time.
+     */
+    private static String fingerprint(Path projectRootPath, FactProjection projection) throws IOException {
+        List<String> jars = new ArrayList<>();
+        Path libDownloadPath = BuildProject.libDownloadPath != null
+                ? BuildProject.libDownloadPath.toAbsolutePath().normalize()
+                : null;
+        Files.walkFileTree(projectRootPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.toAbsolutePath().normalize().equals(libDownloadPath)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return Files.isHidden(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.toString().endsWith(".jar")) {
+                    jars.add(file.toAbsolutePath() + ":" + attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (libDownloadPath != null && Files.isDirectory(libDownloadPath)) {
+            try (Stream<Path> libraries = Files.list(libDownloadPath)) {
+                for (Path jar : (Iterable<Path>) libraries::iterator) {
+                    if (jar.toString().endsWith(".jar")) {
+                        jars.add(jar.getFileName() + ":" + Files.size(jar));
+                    }
+                }
+            }
+        }
+        if (SymbolTable.dependencyClasspath != null) {
+            for (Path jar : SymbolTable.dependencyClasspath) {
+                jars.add(jar.toAbsolutePath() + ":" + Files.size(jar) + ":" + Files.getLastModifiedTime(jar).toMillis());
+            }
+        }
+        Collections.sort(jars);
+        jars.add(0, CACHE_FORMAT_VERSION);
+        jars.add(1, projection.toString());
+        return sha256(String.join("\n", jars).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteEntries(Path entriesDirectory) throws IOException {
+        if (!Files.exists(entriesDirectory)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(entriesDirectory)) {
+            entries.forEach(entry -> {
+                try {
+                    Files.delete(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Index {
+        private String fingerprint;
+        private Map<String, FileState> files = new ConcurrentHashMap<>();
+    }
+
+    private static final class FileState {
+        private long modifiedTime;
+        private long size;
+        private String hash;
+    }
+}
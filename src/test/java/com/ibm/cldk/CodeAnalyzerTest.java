@@ -0,0 +1,96 @@
+package com.ibm.cldk;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.ibm.cldk.entities.JavaCompilationUnit;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CodeAnalyzerTest {
+
+    @TempDir
+    Path outputDirectory;
+
+    private static JavaCompilationUnit compilationUnit(String packageName) {
+        JavaCompilationUnit compilationUnit = new JavaCompilationUnit();
+        compilationUnit.setPackageName(packageName);
+        compilationUnit.setImports(List.of(packageName + ".Imported"));
+        compilationUnit.setModified(true);
+        return compilationUnit;
+    }
+
+    @Test
+    public void testMergeJSONRoundTrip() throws IOException {
+        // The unchanged entry holds a number whose formatting must survive the copy
+        String existing = "{\n"
+                + "  \"call_graph\": [{\"source\": \"a\", \"target\": \"b\"}],\n"
+                + "  \"symbol_table\": {\n"
+                + "    \"/p/A.java\": {\"package_name\": \"p\", \"imports\": [\"q.R\"], \"weight\": 1.50, \"x\": null},\n"
+                + "    \"/p/B.java\": {\"package_name\": \"old\"}\n"
+                + "  },\n"
+                + "  \"version\": \"0\"\n"
+                + "}";
+        Path analysisFile = outputDirectory.resolve("analysis.json");
+        Files.writeString(analysisFile, existing);
+
+        Map<String, JavaCompilationUnit> updated = new LinkedHashMap<>();
+        updated.put("/p/B.java", compilationUnit("p"));
+        updated.put("/p/C.java", compilationUnit("p"));
+        CodeAnalyzer.mergeJSON(analysisFile, updated);
+
+        String merged = Files.readString(analysisFile);
+        Assertions.assertTrue(merged.contains("1.50"));
+        Assertions.assertFalse(Files.exists(outputDirectory.resolve("analysis.json.tmp")));
+        JsonObject output = JsonParser.parseString(merged).getAsJsonObject();
+        Assertions.assertFalse(output.has("call_graph"));
+        Assertions.assertTrue(output.has("version"));
+        JsonObject symbolTable = output.getAsJsonObject("symbol_table");
+        Assertions.assertEquals(List.of("/p/A.java", "/p/B.java", "/p/C.java"), List.copyOf(symbolTable.keySet()));
+        JsonElement unchanged = JsonParser.parseString(existing).getAsJsonObject().getAsJsonObject("symbol_table")
+                .get("/p/A.java");
+        Assertions.assertEquals(unchanged, symbolTable.get("/p/A.java"));
+        for (String filePath : List.of("/p/B.java", "/p/C.java")) {
+            JavaCompilationUnit compilationUnit = CodeAnalyzer.gson.fromJson(symbolTable.get(filePath),
+                    JavaCompilationUnit.class);
+            Assertions.assertEquals("p", compilationUnit.getPackageName());
+            Assertions.assertEquals(List.of("p.Imported"), compilationUnit.getImports());
+            Assertions.assertTrue(compilationUnit.isModified());
+        }
+    }
+
+    @Test
+    public void testMergeJSONKeepsExistingOutputOnError() throws IOException {
+        Path analysisFile = outputDirectory.resolve("analysis.json");
+        String truncated = "{\"symbol_table\": {\"/p/A.java\": {\"package_name\": ";
+        Files.writeString(analysisFile, truncated);
+
+        Map<String, JavaCompilationUnit> updated = new LinkedHashMap<>();
+        updated.put("/p/A.java", compilationUnit("p"));
+        CodeAnalyzer.mergeJSON(analysisFile, updated);
+
+        Assertions.assertEquals(truncated, Files.readString(analysisFile));
+        Assertions.assertFalse(Files.exists(outputDirectory.resolve("analysis.json.tmp")));
+    }
+
+    @Test
+    public void testMergeJSONRejectsStringTableEncoding() throws IOException {
+        Path analysisFile = outputDirectory.resolve("analysis.json");
+        String encoded = "{\"string_table\": [\"p\"], \"symbol_table\": {\"/p/A.java\": {\"package_name\": 0}}, \"version\": \"0\"}";
+        Files.writeString(analysisFile, encoded);
+
+        Map<String, JavaCompilationUnit> updated = new LinkedHashMap<>();
+        updated.put("/p/B.java", compilationUnit("p"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CodeAnalyzer.mergeJSON(analysisFile, updated));
+
+        Assertions.assertEquals(encoded, Files.readString(analysisFile));
+        Assertions.assertFalse(Files.exists(outputDirectory.resolve("analysis.json.tmp")));
+    }
+}
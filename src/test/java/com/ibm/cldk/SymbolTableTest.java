@@ -1,14 +1,27 @@
 package com.ibm.cldk;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.ibm.cldk.entities.CallSite;
 import com.ibm.cldk.entities.Callable;
 import com.ibm.cldk.entities.JavaCompilationUnit;
 import com.ibm.cldk.entities.Type;
+import com.ibm.cldk.utils.CallableSignatureIndex;
+import com.ibm.cldk.utils.FactProjection;
+import com.ibm.cldk.utils.StringTableEncoding;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -54,4 +67,108 @@ public class SymbolTableTest {
         }
     }
 
+    @Test
+    public void testParallelExtractAllMatchesSequential() throws IOException, URISyntaxException {
+        Path projectRoot = Paths.get(getClass().getClassLoader()
+                .getResource("test-applications/plantsbywebsphere").toURI());
+        Map<String, JavaCompilationUnit> sequential = SymbolTable.extractAll(projectRoot).getLeft();
+        Map<String, JavaCompilationUnit> parallel = SymbolTable.extractAll(projectRoot, 4).getLeft();
+        Assertions.assertFalse(sequential.isEmpty());
+        Assertions.assertEquals(new ArrayList<>(sequential.keySet()), new ArrayList<>(parallel.keySet()));
+        Assertions.assertEquals(CodeAnalyzer.gson.toJson(sequential), CodeAnalyzer.gson.toJson(parallel));
+    }
+
+    @Test
+    public void testExtractAllIndexesCallablesOnRequest() throws IOException, URISyntaxException {
+        Path projectRoot = Paths.get(getClass().getClassLoader()
+                .getResource("test-applications/plantsbywebsphere").toURI());
+        CallableSignatureIndex index = SymbolTable.declaredMethodsAndConstructors;
+        try {
+            SymbolTable.declaredMethodsAndConstructors = new CallableSignatureIndex();
+            Map<String, JavaCompilationUnit> symbolTable = new LinkedHashMap<>();
+            SymbolTable.extractAll(projectRoot, 1, null, false, symbolTable::put);
+            Map.Entry<String, Type> type = symbolTable.values().stream()
+                    .flatMap(compilationUnit -> compilationUnit.getTypeDeclarations().entrySet().stream())
+                    .filter(entry -> !entry.getValue().getCallableDeclarations().isEmpty())
+                    .findFirst().get();
+            String signature = type.getValue().getCallableDeclarations().keySet().iterator().next();
+            Assertions.assertNull(SymbolTable.declaredMethodsAndConstructors.get(type.getKey(), signature));
+
+            SymbolTable.extractAll(projectRoot);
+            Assertions.assertNotNull(SymbolTable.declaredMethodsAndConstructors.get(type.getKey(), signature));
+        } finally {
+            SymbolTable.declaredMethodsAndConstructors = index;
+        }
+    }
+
+    @Test
+    public void testSlicedCodeMatchesLexicalPreservingPrinter() throws IOException {
+        String javaCode = getJavaCodeForTestResource("test-applications/generics-varargs-duplicate-signature-test/Validate.java");
+        for (String code : List.of(javaCode, javaCode.replace("\n", "\r\n").replace("    ", "\t"))) {
+            Map<String, Callable> lexicalPreserving;
+            try {
+                SymbolTable.lexicalPreservingCode = true;
+                lexicalPreserving = SymbolTable.extractSingle(code).getLeft().values().iterator().next()
+                        .getTypeDeclarations().values().iterator().next().getCallableDeclarations();
+            } finally {
+                SymbolTable.lexicalPreservingCode = false;
+            }
+            Map<String, Callable> sliced = SymbolTable.extractSingle(code).getLeft().values().iterator().next()
+                    .getTypeDeclarations().values().iterator().next().getCallableDeclarations();
+            Assertions.assertEquals(lexicalPreserving.keySet(), sliced.keySet());
+            for (String signature : sliced.keySet()) {
+                Assertions.assertEquals(lexicalPreserving.get(signature).getCode(), sliced.get(signature).getCode());
+            }
+        }
+    }
+
+    @Test
+    public void testProjectionSkipsExcludedFacts() throws IOException {
+        String javaCode = getJavaCodeForTestResource("test-applications/generics-varargs-duplicate-signature-test/Validate.java");
+        Map<String, Callable> callables;
+        try {
+            SymbolTable.projection = FactProjection.of(List.of(FactProjection.CALL_SITES), null);
+            callables = SymbolTable.extractSingle(javaCode).getLeft().values().iterator().next()
+                    .getTypeDeclarations().values().iterator().next().getCallableDeclarations();
+        } finally {
+            SymbolTable.projection = FactProjection.ALL;
+        }
+        Assertions.assertEquals(17, callables.size());
+        Callable callable = callables.get("notEmpty(java.util.Collection<?>, java.lang.String, java.lang.Object[])");
+        Assertions.assertFalse(callable.getCallSites().isEmpty());
+        Assertions.assertEquals("", callable.getCode());
+        Assertions.assertTrue(callable.getComments().isEmpty());
+        Assertions.assertTrue(callable.getVariableDeclarations().isEmpty());
+    }
+
+    @Test
+    public void testStringTableEncodingRoundTrip() throws IOException {
+        String javaCode = getJavaCodeForTestResource("test-applications/generics-varargs-duplicate-signature-test/Validate.java");
+        JavaCompilationUnit compilationUnit = SymbolTable.extractSingle(javaCode).getLeft().values().iterator().next();
+        Type type = compilationUnit.getTypeDeclarations().values().iterator().next();
+        // a line of 0 is the declared default, which the encoding omits, while -1 is written
+        Iterator<Callable> callables = type.getCallableDeclarations().values().iterator();
+        callables.next().setStartLine(-1);
+        callables.next().setStartLine(0);
+        StringTableEncoding encoding = new StringTableEncoding();
+        String encoded = encoding.getGson().toJson(compilationUnit);
+        Assertions.assertFalse(encoded.contains("null"));
+        StringWriter strings = new StringWriter();
+        encoding.writeStrings(new JsonWriter(strings));
+
+        StringTableEncoding decoding = new StringTableEncoding();
+        decoding.readStrings(new JsonReader(new StringReader(strings.toString())));
+        JavaCompilationUnit decoded = decoding.getGson().fromJson(encoded, JavaCompilationUnit.class);
+        Type decodedType = decoded.getTypeDeclarations().values().iterator().next();
+        Assertions.assertEquals(type.getCallableDeclarations().keySet(), decodedType.getCallableDeclarations().keySet());
+        for (Map.Entry<String, Callable> callable : type.getCallableDeclarations().entrySet()) {
+            Callable decodedCallable = decodedType.getCallableDeclarations().get(callable.getKey());
+            Assertions.assertEquals(callable.getValue().getSignature(), decodedCallable.getSignature());
+            Assertions.assertEquals(callable.getValue().getCode(), decodedCallable.getCode());
+            Assertions.assertEquals(callable.getValue().getModifiers(), decodedCallable.getModifiers());
+            Assertions.assertEquals(callable.getValue().getStartLine(), decodedCallable.getStartLine());
+        }
+        Assertions.assertEquals(compilationUnit, decoded);
+    }
+
 }
@@ -0,0 +1,82 @@
+package com.ibm.cldk;
+
+import com.ibm.cldk.entities.CallableVertex;
+import com.ibm.cldk.entities.NormalizedCallGraph;
+import com.ibm.cldk.utils.IndexedCallGraph;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SystemDependencyGraphTest {
+
+    private static Map<String, String> callable(String filePath, String type, String signature) {
+        Map<String, String> callable = new HashMap<>();
+        callable.put("filePath", filePath);
+        callable.put("typeDeclaration", type);
+        callable.put("signature", signature);
+        callable.put("callableDeclaration", "void " + signature);
+        return callable;
+    }
+
+    /**
+     * Builds a call graph whose vertices are added in the reverse of their sorted order.
+     */
+    private static IndexedCallGraph callGraph() {
+        IndexedCallGraph graph = new IndexedCallGraph();
+        int d = graph.addVertex(callable("b/D.java", "b.D", "d()"));
+        int c = graph.addVertex(callable("a/A.java", "a.A", "c()"));
+        int b = graph.addVertex(callable("a/A.java", "a.A", "b()"));
+        int a = graph.addVertex(callable("a/A.java", "a.A", "a(int)"));
+        graph.addCall(d, a);
+        graph.addCall(a, b);
+        graph.addCall(a, b);
+        graph.addCall(a, d);
+        graph.addCall(c, b);
+        graph.addCall(a, b);
+        return graph;
+    }
+
+    private static String key(CallableVertex vertex) {
+        return vertex.getTypeDeclaration() + "." + vertex.getSignature();
+    }
+
+    @Test
+    public void testNormalizedCallGraph() {
+        NormalizedCallGraph normalizedCallGraph = SystemDependencyGraph.buildNormalizedCallGraph(callGraph());
+
+        // vertex ids follow the order of file path, type declaration and signature
+        Assertions.assertEquals(List.of("a.A.a(int)", "a.A.b()", "a.A.c()", "b.D.d()"),
+                normalizedCallGraph.getVertices().stream().map(SystemDependencyGraphTest::key)
+                        .collect(Collectors.toList()));
+        Assertions.assertEquals("a/A.java", normalizedCallGraph.getVertices().get(0).getFilePath());
+        Assertions.assertEquals("void a(int)", normalizedCallGraph.getVertices().get(0).getCallableDeclaration());
+
+        // edges refer to the sorted ids, by source and then target
+        List<List<Integer>> edges = normalizedCallGraph.getEdges().stream()
+                .map(edge -> List.of(edge[0], edge[1], edge[2]))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(List.of(List.of(0, 1, 3), List.of(0, 3, 1), List.of(2, 1, 1), List.of(3, 0, 1)), edges);
+    }
+
+    @Test
+    public void testNormalizedCallGraphMatchesEdgeList() {
+        NormalizedCallGraph normalizedCallGraph = SystemDependencyGraph.buildNormalizedCallGraph(callGraph());
+        List<Dependency> dependencies = SystemDependencyGraph.buildCallDependencies(callGraph());
+
+        Map<String, String> normalizedWeights = new HashMap<>();
+        for (int[] edge : normalizedCallGraph.getEdges()) {
+            normalizedWeights.put(key(normalizedCallGraph.getVertices().get(edge[0])) + " -> "
+                    + key(normalizedCallGraph.getVertices().get(edge[1])), String.valueOf(edge[2]));
+        }
+        Map<String, String> weights = new HashMap<>();
+        for (Dependency dependency : dependencies) {
+            weights.put(key(dependency.getSource()) + " -> " + key(dependency.getTarget()),
+                    ((CallDependency) dependency).getWeight());
+        }
+        Assertions.assertEquals(dependencies.size(), normalizedCallGraph.getEdges().size());
+        Assertions.assertEquals(weights, normalizedWeights);
+    }
+}
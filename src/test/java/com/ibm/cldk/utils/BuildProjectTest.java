@@ -1,4 +1,59 @@
 package com.ibm.cldk.utils;
 
+import com.ibm.cldk.CodeAnalyzer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisabledOnOs(OS.WINDOWS)
 public class BuildProjectTest {
+
+    @TempDir
+    Path projectRoot;
+
+    private String previousProjectRoot;
+
+    @BeforeEach
+    public void setProjectRoot() {
+        previousProjectRoot = CodeAnalyzer.projectRootPom;
+        CodeAnalyzer.projectRootPom = projectRoot.toString();
+    }
+
+    @AfterEach
+    public void restoreProjectRoot() {
+        CodeAnalyzer.projectRootPom = previousProjectRoot;
+    }
+
+    @Test
+    public void testBuildWithToolExitCode() {
+        Assertions.assertTrue(BuildProject.buildWithTool(new String[]{"sh", "-c", "echo built; exit 0"}, 0));
+        Assertions.assertFalse(BuildProject.buildWithTool(new String[]{"sh", "-c", "echo failed >&2; exit 1"}, 30));
+    }
+
+    @Test
+    public void testBuildWithToolKillsProcessTreeOnTimeout() throws Exception {
+        // The build tool forks a child, as Gradle and Maven do, and never finishes
+        Path childPidFile = projectRoot.resolve("child.pid");
+        String[] command = {"sh", "-c", "sleep 60 & echo $! > child.pid; wait"};
+
+        long start = System.nanoTime();
+        Assertions.assertFalse(BuildProject.buildWithTool(command, 1));
+        long elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000L;
+        Assertions.assertTrue(elapsedSeconds < 10, "returned after " + elapsedSeconds + " seconds");
+
+        long childPid = Long.parseLong(Files.readString(childPidFile).trim());
+        Optional<ProcessHandle> child = ProcessHandle.of(childPid);
+        if (child.isPresent()) {
+            // the child was signalled, and exits shortly after
+            child.get().onExit().get(5, TimeUnit.SECONDS);
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package com.ibm.cldk.utils;
+
+import com.ibm.cldk.entities.Callable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CallableSignatureIndexTest {
+
+    private static Callable callable(String signature) {
+        Callable callable = new Callable();
+        callable.setSignature(signature);
+        return callable;
+    }
+
+    @Test
+    public void testExactMatchWinsOverSuffixMatch() {
+        CallableSignatureIndex index = new CallableSignatureIndex();
+        Callable unresolved = callable("foo(String)");
+        Callable resolved = callable("foo(java.lang.String)");
+        index.put("com.example.A", "foo(String)", unresolved);
+        index.put("com.example.A", "foo(java.lang.String)", resolved);
+        Assertions.assertSame(resolved, index.get("com.example.A", "foo(java.lang.String)"));
+        Assertions.assertSame(unresolved, index.get("com.example.A", "foo(String)"));
+    }
+
+    @Test
+    public void testSuffixMatch() {
+        CallableSignatureIndex index = new CallableSignatureIndex();
+        Callable callable = callable("foo(String, int)");
+        index.put("com.example.A", "foo(String, int)", callable);
+        Assertions.assertSame(callable, index.get("com.example.A", "foo(java.lang.String, int)"));
+        Assertions.assertNull(index.get("com.example.A", "foo(java.lang.Integer, int)"));
+        Assertions.assertNull(index.get("com.example.B", "foo(java.lang.String, int)"));
+    }
+
+    @Test
+    public void testNoArgumentConstructorDoesNotMatchOneArgumentLookup() {
+        CallableSignatureIndex index = new CallableSignatureIndex();
+        Callable noArguments = callable("<init>()");
+        Callable oneArgument = callable("<init>(Foo)");
+        index.put("com.x.Bar", "<init>()", noArguments);
+        index.put("com.x.Bar", "<init>(Foo)", oneArgument);
+        Assertions.assertSame(oneArgument, index.get("com.x.Bar", "<init>(com.x.Foo)"));
+        Assertions.assertSame(noArguments, index.get("com.x.Bar", "<init>()"));
+        Assertions.assertNull(index.get("com.x.Bar", "<init>(com.x.Baz)"));
+    }
+}
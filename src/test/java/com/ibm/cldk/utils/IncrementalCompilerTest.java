@@ -0,0 +1,134 @@
+package com.ibm.cldk.utils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IncrementalCompilerTest {
+
+    // Class files that have not been written since the last compilation keep this modification time
+    private static final FileTime UNCHANGED = FileTime.fromMillis(0);
+
+    @TempDir
+    Path projectRoot;
+
+    /**
+     * Creates a Maven project with two modules: core, where C calls B, B calls A, G reads a constant of K and D stands
+     * alone, and app, where E calls C.
+     */
+    @BeforeEach
+    public void createProject() throws IOException {
+        write("pom.xml", "<project><properties><maven.compiler.release>11</maven.compiler.release></properties></project>");
+        write("core/pom.xml", "<project/>");
+        write("core/src/main/java/p/A.java", "package p; public class A { public int a() { return 1; } }");
+        write("core/src/main/java/p/B.java", "package p; public class B { public int b() { return new A().a(); } }");
+        write("core/src/main/java/p/C.java", "package p; public class C { public int c() { return new B().b(); } }");
+        write("core/src/main/java/p/D.java", "package p; public class D { class Inner { } }");
+        write("core/src/main/java/p/K.java", "package p; public class K { public static final int X = 1; }");
+        write("core/src/main/java/p/G.java", "package p; public class G { int g() { return K.X; } }");
+        write("core/src/test/java/p/ATest.java", "package p; public class ATest { int test() { return new A().a(); } }");
+        write("app/pom.xml", "<project/>");
+        write("app/src/main/java/q/E.java", "package q; public class E { int e() { return new p.C().c(); } }");
+    }
+
+    private void write(String file, String content) throws IOException {
+        Path path = projectRoot.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        // make the change visible even within the resolution of modification times
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+    }
+
+    private List<Path> classFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(projectRoot)) {
+            return paths.filter(path -> path.toString().endsWith(".class")).collect(Collectors.toList());
+        }
+    }
+
+    private void compile() throws IOException {
+        Assertions.assertTrue(IncrementalCompiler.compile(projectRoot, List.of(), true));
+    }
+
+    /**
+     * Compiles the project and returns the names of the class files that were written.
+     */
+    private Set<String> recompile() throws IOException {
+        for (Path classFile : classFiles()) {
+            Files.setLastModifiedTime(classFile, UNCHANGED);
+        }
+        compile();
+        Set<String> written = new TreeSet<>();
+        for (Path classFile : classFiles()) {
+            if (!Files.getLastModifiedTime(classFile).equals(UNCHANGED)) {
+                written.add(classFile.getFileName().toString());
+            }
+        }
+        return written;
+    }
+
+    @Test
+    public void testClassFilesAreWrittenToTheirModule() throws IOException {
+        compile();
+        Set<String> expected = Set.of("core/target/classes/p/A.class", "core/target/classes/p/D$Inner.class",
+                "core/target/test-classes/p/ATest.class", "app/target/classes/q/E.class");
+        for (String classFile : expected) {
+            Assertions.assertTrue(Files.exists(projectRoot.resolve(classFile)), classFile);
+        }
+        Assertions.assertEquals(9, classFiles().size());
+        Assertions.assertTrue(Files.exists(projectRoot.resolve("target")));
+
+        // the release level of the root pom.xml, i.e., Java 11
+        try (InputStream in = Files.newInputStream(projectRoot.resolve("core/target/classes/p/A.class"));
+                DataInputStream classFile = new DataInputStream(in)) {
+            Assertions.assertEquals(0xCAFEBABE, classFile.readInt());
+            classFile.readUnsignedShort();
+            Assertions.assertEquals(55, classFile.readUnsignedShort());
+        }
+    }
+
+    @Test
+    public void testUnchangedProjectIsNotCompiled() throws IOException {
+        compile();
+        Assertions.assertEquals(Set.of(), recompile());
+    }
+
+    @Test
+    public void testChangedSourceIsRecompiledWithItsDependents() throws IOException {
+        compile();
+        write("core/src/main/java/p/B.java", "package p; public class B { public int b() { return new A().a() + 1; } }");
+        Assertions.assertEquals(Set.of("B.class", "C.class", "E.class"), recompile());
+
+        write("core/src/main/java/p/A.java", "package p; public class A { public int a() { return 2; } }");
+        Assertions.assertEquals(Set.of("A.class", "ATest.class", "B.class", "C.class", "E.class"), recompile());
+    }
+
+    @Test
+    public void testChangedConstantRecompilesAll() throws IOException {
+        compile();
+        int classFileCount = classFiles().size();
+        write("core/src/main/java/p/K.java", "package p; public class K { public static final int X = 2; }");
+        Assertions.assertEquals(classFileCount, recompile().size());
+    }
+
+    @Test
+    public void testDeletedSourceRemovesItsClassFiles() throws IOException {
+        compile();
+        Files.delete(projectRoot.resolve("core/src/main/java/p/D.java"));
+        Assertions.assertEquals(Set.of(), recompile());
+        Assertions.assertFalse(Files.exists(projectRoot.resolve("core/target/classes/p/D.class")));
+        Assertions.assertFalse(Files.exists(projectRoot.resolve("core/target/classes/p/D$Inner.class")));
+        Assertions.assertTrue(Files.exists(projectRoot.resolve("core/target/classes/p/A.class")));
+    }
+}
@@ -0,0 +1,115 @@
+package com.ibm.cldk.utils;
+
+import com.ibm.cldk.entities.AbstractGraphEdge;
+import com.ibm.cldk.entities.CallableVertex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IndexedCallGraphTest {
+
+    private static Map<String, String> callable(String signature) {
+        return Map.of("filePath", "A.java", "typeDeclaration", "p.A", "signature", signature,
+                "callableDeclaration", "void " + signature);
+    }
+
+    private static List<String> edges(IndexedCallGraph graph) {
+        List<String> edges = new ArrayList<>();
+        graph.forEachEdge((source, target, weight) -> edges.add(source + "->" + target + ":" + weight));
+        return edges;
+    }
+
+    @Test
+    public void testCallsAreMergedIntoWeightedEdges() {
+        IndexedCallGraph graph = new IndexedCallGraph();
+        int a = graph.addVertex(callable("a()"));
+        int b = graph.addVertex(callable("b()"));
+        int c = graph.addVertex(callable("c()"));
+        int d = graph.addVertex(callable("d()"));
+        Assertions.assertEquals(a, graph.addVertex(callable("a()")));
+        Assertions.assertEquals(4, graph.getVertexCount());
+        Assertions.assertEquals(callable("c()"), graph.getVertex(c));
+
+        // Out of order, with repeated calls and a vertex without outgoing calls in between
+        graph.addCall(c, a);
+        graph.addCall(a, c);
+        graph.addCall(a, b);
+        graph.addCall(c, a);
+        graph.addCall(a, c);
+        graph.addCall(a, c);
+        graph.addCall(d, d);
+
+        Assertions.assertEquals(4, graph.getEdgeCount());
+        Assertions.assertEquals(List.of("0->1:1", "0->2:3", "2->0:2", "3->3:1"), edges(graph));
+        Assertions.assertEquals(edges(graph), edges(graph));
+    }
+
+    @Test
+    public void testManyCalls() {
+        IndexedCallGraph graph = new IndexedCallGraph();
+        int vertexCount = 50;
+        for (int i = 0; i < vertexCount; i++) {
+            graph.addVertex(callable("m" + i + "()"));
+        }
+        // More calls than the initial capacity, every pair of vertices called 3 times
+        for (int round = 0; round < 3; round++) {
+            for (int source = vertexCount - 1; source >= 0; source--) {
+                for (int target = 0; target < vertexCount; target++) {
+                    graph.addCall(source, target);
+                }
+            }
+        }
+        Assertions.assertEquals(vertexCount * vertexCount, graph.getEdgeCount());
+        int[] previous = {-1, -1};
+        graph.forEachEdge((source, target, weight) -> {
+            Assertions.assertEquals(3, weight);
+            Assertions.assertTrue(source > previous[0] || (source == previous[0] && target > previous[1]));
+            previous[0] = source;
+            previous[1] = target;
+        });
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        IndexedCallGraph graph = new IndexedCallGraph();
+        graph.addVertex(callable("a()"));
+        Assertions.assertEquals(0, graph.getEdgeCount());
+        Assertions.assertEquals(List.of(), edges(graph));
+    }
+
+    @Test
+    public void testGraphIsReadOnlyOnceRead() {
+        IndexedCallGraph graph = new IndexedCallGraph();
+        int a = graph.addVertex(callable("a()"));
+        int b = graph.addVertex(callable("b()"));
+        graph.addCall(a, b);
+        Assertions.assertEquals(1, graph.getEdgeCount());
+        Assertions.assertThrows(IllegalStateException.class, () -> graph.addCall(b, a));
+        Assertions.assertThrows(IllegalStateException.class, () -> graph.addVertex(callable("c()")));
+        Assertions.assertEquals(a, graph.addVertex(callable("a()")));
+    }
+
+    @Test
+    public void testToGraph() {
+        IndexedCallGraph graph = new IndexedCallGraph();
+        int a = graph.addVertex(callable("a()"));
+        int b = graph.addVertex(callable("b()"));
+        graph.addVertex(callable("c()"));
+        graph.addCall(a, b);
+        graph.addCall(a, b);
+        graph.addCall(b, a);
+
+        Graph<CallableVertex, AbstractGraphEdge> jgraphtGraph = graph.toGraph();
+        Assertions.assertEquals(3, jgraphtGraph.vertexSet().size());
+        Assertions.assertEquals(2, jgraphtGraph.edgeSet().size());
+        for (AbstractGraphEdge edge : jgraphtGraph.edgeSet()) {
+            String source = jgraphtGraph.getEdgeSource(edge).getSignature();
+            String target = jgraphtGraph.getEdgeTarget(edge).getSignature();
+            Assertions.assertEquals(source.equals("a()") ? "b()" : "a()", target);
+            Assertions.assertEquals(source.equals("a()") ? 2 : 1, edge.weight);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ibm.cldk.utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JdkClassIndexTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    /**
+     * Creates an index where C extends B, B extends A and implements I of another module, and D is not referenced.
+     */
+    private static JdkClassIndex index() {
+        String[] classNames = {"p/A", "p/B", "p/C", "p/D", "q/I"};
+        int[] classModules = {0, 0, 0, 0, 1};
+        int[][] references = {{}, {0, 4}, {1}, {0}, {}};
+        return new JdkClassIndex(List.of("m.p", "m.q"), classNames, classModules, references);
+    }
+
+    @Test
+    public void testReachableClassesAreClosedUnderReferences() {
+        Map<String, Set<String>> reachable = index().getReachableClasses(Set.of("p/C", "r/NotInTheRuntime"));
+        Assertions.assertEquals(Map.of("m.p", Set.of("p/A", "p/B", "p/C"), "m.q", Set.of("q/I")), reachable);
+        Assertions.assertEquals(Map.of(), index().getReachableClasses(Set.of("r/NotInTheRuntime")));
+    }
+
+    @Test
+    public void testIndexRoundTrip() throws IOException {
+        Path indexFile = cacheDirectory.resolve("index.idx");
+        index().write(indexFile, "jdk|1|2");
+
+        JdkClassIndex read = JdkClassIndex.read(indexFile, "jdk|1|2");
+        Assertions.assertNotNull(read);
+        Assertions.assertEquals(5, read.getNumberOfClasses());
+        for (String className : List.of("p/A", "p/B", "p/C", "p/D", "q/I")) {
+            Assertions.assertEquals(index().getReachableClasses(Set.of(className)),
+                    read.getReachableClasses(Set.of(className)), className);
+        }
+
+        // an index of another runtime, or in another format, is not used
+        Assertions.assertNull(JdkClassIndex.read(indexFile, "jdk|1|3"));
+        try (RandomAccessFile file = new RandomAccessFile(indexFile.toFile(), "rw")) {
+            int version = file.readInt();
+            file.seek(0);
+            file.writeInt(version + 1);
+        }
+        Assertions.assertNull(JdkClassIndex.read(indexFile, "jdk|1|2"));
+    }
+
+    @Test
+    public void testReferencedJdkClassPullsInSupertypes() throws IOException {
+        JdkModules jdk = JdkModules.open(System.getProperty("java.home"));
+        JdkClassIndex index = JdkClassIndex.open(cacheDirectory, jdk);
+        Set<String> reachable = index.getReachableClasses(Set.of("java/util/ArrayList")).get("java.base");
+        for (String supertype : List.of("java/util/AbstractList", "java/util/AbstractCollection", "java/util/List",
+                "java/util/Collection", "java/lang/Iterable", "java/util/RandomAccess", "java/lang/Object")) {
+            Assertions.assertTrue(reachable.contains(supertype), supertype);
+        }
+
+        // the index is stored, and read back by the next run on the same runtime
+        List<Path> indexFiles;
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            indexFiles = files.collect(Collectors.toList());
+        }
+        Assertions.assertEquals(1, indexFiles.size());
+        Assertions.assertNotNull(JdkClassIndex.read(indexFiles.get(0), jdk.getFingerprint()));
+        JdkClassIndex reopened = JdkClassIndex.open(cacheDirectory, jdk);
+        Assertions.assertEquals(index.getNumberOfClasses(), reopened.getNumberOfClasses());
+        Assertions.assertEquals(index.getReachableClasses(Set.of("java/util/ArrayList")),
+                reopened.getReachableClasses(Set.of("java/util/ArrayList")));
+    }
+}
@@ -0,0 +1,153 @@
+package com.ibm.cldk.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.ibm.cldk.entities.Callable;
+import com.ibm.cldk.entities.JavaCompilationUnit;
+import com.ibm.cldk.entities.Type;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ShardedOutputWriterTest {
+
+    @TempDir
+    Path outputDirectory;
+
+    private static JavaCompilationUnit compilationUnit(String packageName, String typeName, String signature) {
+        Callable callable = new Callable();
+        callable.setSignature(signature);
+        Type type = new Type();
+        type.getCallableDeclarations().put(signature, callable);
+        Map<String, Type> typeDeclarations = new LinkedHashMap<>();
+        typeDeclarations.put(packageName + "." + typeName, type);
+        JavaCompilationUnit compilationUnit = new JavaCompilationUnit();
+        compilationUnit.setPackageName(packageName);
+        compilationUnit.setTypeDeclarations(typeDeclarations);
+        return compilationUnit;
+    }
+
+    private JsonObject readManifest() throws IOException {
+        return JsonParser.parseString(Files.readString(outputDirectory.resolve(ShardedOutputWriter.MANIFEST_FILE_NAME)))
+                .getAsJsonObject();
+    }
+
+    /**
+     * Reads the record of the given compilation unit at the location the manifest records for it.
+     */
+    private String readRecord(JsonObject manifest, String filePath) throws IOException {
+        JsonObject location = manifest.getAsJsonObject("compilation_units").getAsJsonObject(filePath);
+        byte[] bytes = new byte[location.get("length").getAsInt()];
+        try (RandomAccessFile shard = new RandomAccessFile(
+                outputDirectory.resolve(location.get("shard").getAsString()).toFile(), "r")) {
+            shard.seek(location.get("offset").getAsLong());
+            shard.readFully(bytes);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testUpdateRewritesOnlyAffectedShards() throws IOException {
+        Map<String, JavaCompilationUnit> symbolTable = new LinkedHashMap<>();
+        symbolTable.put("A.java", compilationUnit("p", "A", "a()"));
+        symbolTable.put("B.java", compilationUnit("p", "B", "b()"));
+        symbolTable.put("C.java", compilationUnit("q", "C", "c()"));
+        ShardedOutputWriter writer = new ShardedOutputWriter(outputDirectory, 0);
+        writer.write(symbolTable, null, "1");
+        Assertions.assertTrue(writer.hasManifest());
+        Path otherShard = outputDirectory.resolve("shards/q.ndjson");
+        byte[] otherShardBefore = Files.readAllBytes(otherShard);
+        String recordBefore = readRecord(readManifest(), "A.java");
+
+        // B gets a new callable, and D is added to the shard of its package
+        Map<String, JavaCompilationUnit> updated = new LinkedHashMap<>();
+        updated.put("B.java", compilationUnit("p", "B", "b(int)"));
+        updated.put("D.java", compilationUnit("p", "D", "d()"));
+        writer.update(updated, "2");
+
+        JsonObject manifest = readManifest();
+        Assertions.assertEquals("2", manifest.get("version").getAsString());
+        Assertions.assertArrayEquals(otherShardBefore, Files.readAllBytes(otherShard));
+        Assertions.assertEquals(recordBefore, readRecord(manifest, "A.java"));
+        Assertions.assertTrue(readRecord(manifest, "B.java").contains("b(int)"));
+        Assertions.assertFalse(readRecord(manifest, "B.java").contains("b()"));
+        Assertions.assertEquals("shards/p.ndjson",
+                manifest.getAsJsonObject("compilation_units").getAsJsonObject("D.java").get("shard").getAsString());
+        Assertions.assertTrue(readRecord(manifest, "D.java").contains("d()"));
+
+        JsonObject callables = manifest.getAsJsonObject("callables");
+        Assertions.assertFalse(callables.has("p.B.b()"));
+        Assertions.assertEquals("B.java", callables.get("p.B.b(int)").getAsString());
+        Assertions.assertEquals("D.java", callables.get("p.D.d()").getAsString());
+        Assertions.assertEquals("C.java", manifest.getAsJsonObject("types").get("q.C").getAsString());
+
+        // Every record is a line of its shard, and the shard holds nothing else
+        List<String> lines = Files.readAllLines(outputDirectory.resolve("shards/p.ndjson"));
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals(lines.get(0) + "\n", readRecord(manifest, "A.java"));
+    }
+
+    @Test
+    public void testUpdateMovesCompilationUnitToItsNewPackageShard() throws IOException {
+        Map<String, JavaCompilationUnit> symbolTable = new LinkedHashMap<>();
+        symbolTable.put("A.java", compilationUnit("p", "A", "a()"));
+        symbolTable.put("B.java", compilationUnit("p", "B", "b()"));
+        symbolTable.put("C.java", compilationUnit("q", "C", "c()"));
+        ShardedOutputWriter writer = new ShardedOutputWriter(outputDirectory, 0);
+        writer.write(symbolTable, null, "1");
+
+        // B moves from p to q, and C from q to the new package r, which leaves the shard of q with B only
+        Map<String, JavaCompilationUnit> updated = new LinkedHashMap<>();
+        updated.put("B.java", compilationUnit("q", "B", "b()"));
+        updated.put("C.java", compilationUnit("r", "C", "c()"));
+        writer.update(updated, "2");
+
+        JsonObject manifest = readManifest();
+        JsonObject compilationUnits = manifest.getAsJsonObject("compilation_units");
+        Assertions.assertEquals("shards/q.ndjson", compilationUnits.getAsJsonObject("B.java").get("shard").getAsString());
+        Assertions.assertEquals("shards/r.ndjson", compilationUnits.getAsJsonObject("C.java").get("shard").getAsString());
+        Assertions.assertTrue(readRecord(manifest, "B.java").contains("q.B"));
+        Assertions.assertEquals("B.java", manifest.getAsJsonObject("types").get("q.B").getAsString());
+        Assertions.assertFalse(manifest.getAsJsonObject("types").has("p.B"));
+        Assertions.assertEquals(1, Files.readAllLines(outputDirectory.resolve("shards/p.ndjson")).size());
+        Assertions.assertEquals(1, Files.readAllLines(outputDirectory.resolve("shards/q.ndjson")).size());
+        Assertions.assertEquals(1, Files.readAllLines(outputDirectory.resolve("shards/r.ndjson")).size());
+
+        // A package left without compilation units loses its shard
+        updated.put("B.java", compilationUnit("p", "B", "b()"));
+        writer.update(updated, "3");
+        Assertions.assertFalse(Files.exists(outputDirectory.resolve("shards/q.ndjson")));
+        Assertions.assertEquals(2, Files.readAllLines(outputDirectory.resolve("shards/p.ndjson")).size());
+        Assertions.assertEquals(3, readManifest().getAsJsonObject("compilation_units").size());
+    }
+
+    @Test
+    public void testUpdateAddsToLastSizedShardUntilFull() throws IOException {
+        Map<String, JavaCompilationUnit> symbolTable = new LinkedHashMap<>();
+        symbolTable.put("A.java", compilationUnit("p", "A", "a()"));
+        symbolTable.put("B.java", compilationUnit("p", "B", "b()"));
+        symbolTable.put("C.java", compilationUnit("p", "C", "c()"));
+        ShardedOutputWriter writer = new ShardedOutputWriter(outputDirectory, 2);
+        writer.write(symbolTable, null, "1");
+
+        Map<String, JavaCompilationUnit> added = new LinkedHashMap<>();
+        added.put("D.java", compilationUnit("p", "D", "d()"));
+        added.put("E.java", compilationUnit("p", "E", "e()"));
+        writer.update(added, "1");
+
+        JsonObject compilationUnits = readManifest().getAsJsonObject("compilation_units");
+        Assertions.assertEquals("shards/shard-00001.ndjson",
+                compilationUnits.getAsJsonObject("D.java").get("shard").getAsString());
+        Assertions.assertEquals("shards/shard-00002.ndjson",
+                compilationUnits.getAsJsonObject("E.java").get("shard").getAsString());
+        Assertions.assertEquals(2, Files.readAllLines(outputDirectory.resolve("shards/shard-00001.ndjson")).size());
+    }
+}